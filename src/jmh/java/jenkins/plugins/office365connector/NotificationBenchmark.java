@@ -0,0 +1,223 @@
+package jenkins.plugins.office365connector;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import hudson.FilePath;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Result;
+import hudson.model.TaskListener;
+import hudson.model.User;
+import hudson.scm.ChangeLogSet;
+import jenkins.model.Jenkins;
+import jenkins.plugins.office365connector.helpers.CauseBuilder;
+import jenkins.plugins.office365connector.helpers.ChangeLogSetBuilder;
+import jenkins.plugins.office365connector.model.Card;
+import jenkins.plugins.office365connector.model.CardWriter;
+import jenkins.plugins.office365connector.model.FactDefinition;
+import jenkins.plugins.office365connector.model.Macro;
+import jenkins.scm.api.SCMHead;
+import org.jenkinsci.plugins.displayurlapi.DisplayURLProvider;
+import org.jenkinsci.plugins.tokenmacro.TokenMacro;
+import org.mockito.ArgumentMatchers;
+import org.mockito.MockedStatic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Measures every step of the completed build notification: rules evaluation, facts and card building
+ * and serialization of the payload. Run with <code>-prof gc</code> to see the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+// static mocks are bound to the thread so every thread prepares its own fixtures
+@State(Scope.Thread)
+public class NotificationBenchmark {
+
+    private static final String JOB_NAME = "benchmark job";
+    private static final String RUN_URL = "http://localhost:8080/job/benchmark%20job/167/";
+
+    @Param({"1", "50"})
+    public int culprits;
+
+    @Param({"10", "2000"})
+    public int changes;
+
+    @Param({"0", "20"})
+    public int factDefinitions;
+
+    private MockedStatic<Jenkins> staticJenkins;
+    private MockedStatic<DisplayURLProvider> staticDisplayURLProvider;
+    private MockedStatic<TokenMacro> staticTokenMacro;
+    private MockedStatic<SCMHead.HeadByItem> staticHeadByItem;
+
+    private AbstractBuild run;
+    private TaskListener listener;
+    private Webhook webhook;
+    private Card messageCard;
+    private Card adaptiveCard;
+
+    private final Gson gson = new Gson();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        staticJenkins = mockStatic(Jenkins.class);
+        Jenkins jenkins = stub(Jenkins.class);
+        Webhook.DescriptorImpl descriptor = stub(Webhook.DescriptorImpl.class);
+        when(jenkins.getDescriptorOrDie(Webhook.class)).thenReturn(descriptor);
+        staticJenkins.when(Jenkins::get).thenReturn(jenkins);
+
+        DisplayURLProvider displayURLProvider = stub(DisplayURLProvider.class);
+        staticDisplayURLProvider = mockStatic(DisplayURLProvider.class);
+        staticDisplayURLProvider.when(DisplayURLProvider::get).thenReturn(displayURLProvider);
+
+        staticTokenMacro = mockStatic(TokenMacro.class);
+        staticTokenMacro.when(() -> TokenMacro.expandAll(ArgumentMatchers.any(), ArgumentMatchers.any(FilePath.class),
+                ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn("evaluated value");
+
+        staticHeadByItem = mockStatic(SCMHead.HeadByItem.class);
+
+        listener = stub(TaskListener.class);
+        when(listener.getLogger()).thenReturn(new PrintStream(OutputStream.nullOutputStream()));
+        run = mockRun();
+        when(displayURLProvider.getRunURL(run)).thenReturn(RUN_URL);
+        webhook = createWebhook();
+
+        messageCard = new CardBuilder(run, listener, false).createCompletedCard(webhook.getFactDefinitions());
+        adaptiveCard = new CardBuilder(run, listener, true).createCompletedCard(webhook.getFactDefinitions());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        staticHeadByItem.close();
+        staticTokenMacro.close();
+        staticDisplayURLProvider.close();
+        staticJenkins.close();
+    }
+
+    private AbstractBuild mockRun() {
+        AbstractBuild run = stub(AbstractBuild.class);
+        when(run.getNumber()).thenReturn(167);
+        when(run.getResult()).thenReturn(Result.FAILURE);
+        when(run.getRootDir()).thenReturn(new File("."));
+        when(run.getCauses()).thenReturn(CauseBuilder.sampleCauses());
+
+        AbstractProject job = stub(AbstractProject.class);
+        when(job.getFullDisplayName()).thenReturn(JOB_NAME);
+        when(run.getParent()).thenReturn(job);
+
+        AbstractBuild previousBuild = stub(AbstractBuild.class);
+        when(previousBuild.getResult()).thenReturn(Result.FAILURE);
+        when(previousBuild.getNumber()).thenReturn(166);
+        when(run.getPreviousBuild()).thenReturn(previousBuild);
+        when(job.getFirstBuild()).thenReturn(previousBuild);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < culprits; i++) {
+            User user = stub(User.class);
+            when(user.getId()).thenReturn("user" + i);
+            when(user.getFullName()).thenReturn("User " + i);
+            users.add(user);
+        }
+        Set<User> culpritSet = new LinkedHashSet<>(users);
+        when(run.getCulprits()).thenReturn(culpritSet);
+
+        ChangeLogSet.Entry[] entries = new ChangeLogSet.Entry[changes];
+        for (int i = 0; i < changes; i++) {
+            ChangeLogSet.Entry entry = stub(ChangeLogSet.Entry.class);
+            User author = users.get(i % users.size());
+            when(entry.getAuthor()).thenReturn(author);
+            entries[i] = entry;
+        }
+        when(run.getChangeSets()).thenReturn(List.of(new ChangeLogSetBuilder(run, entries)));
+
+        return run;
+    }
+
+    private Webhook createWebhook() {
+        Webhook webhook = new Webhook("https://outlook.office.com/webhook/benchmark");
+        webhook.setNotifyFailure(true);
+        webhook.setNotifyRepeatedFailure(true);
+        webhook.setMacros(List.of(new Macro("${BUILD_STATUS}", "evaluated value")));
+        List<FactDefinition> facts = new ArrayList<>();
+        for (int i = 0; i < factDefinitions; i++) {
+            facts.add(new FactDefinition("Fact " + i, "${FACT_" + i + "}"));
+        }
+        webhook.setFactDefinitions(facts);
+        return webhook;
+    }
+
+    private static <T> T stub(Class<T> type) {
+        // stub only mocks do not record invocations so they do not affect allocation rate
+        return mock(type, withSettings().stubOnly());
+    }
+
+    @Benchmark
+    public boolean evaluateRules() {
+        DecisionMaker decisionMaker = new DecisionMaker(run, listener);
+        return decisionMaker.isStatusMatched(webhook) && decisionMaker.isAtLeastOneRuleMatched(webhook);
+    }
+
+    @Benchmark
+    public Object buildDevelopers() {
+        FactsBuilder factsBuilder = new FactsBuilder(run, listener);
+        factsBuilder.addCommitters();
+        factsBuilder.addDevelopers();
+        return factsBuilder.collect();
+    }
+
+    @Benchmark
+    public Card buildMessageCard() {
+        return new CardBuilder(run, listener, false).createCompletedCard(webhook.getFactDefinitions());
+    }
+
+    @Benchmark
+    public Card buildAdaptiveCard() {
+        return new CardBuilder(run, listener, true).createCompletedCard(webhook.getFactDefinitions());
+    }
+
+    @Benchmark
+    public String serializeMessageCard() {
+        return CardWriter.toJson(messageCard);
+    }
+
+    @Benchmark
+    public String serializeAdaptiveCard() {
+        return CardWriter.toJson(adaptiveCard);
+    }
+
+    /**
+     * Reflective serialization used before the dedicated writers, kept as the reference.
+     */
+    @Benchmark
+    public String serializeMessageCardWithGson() {
+        return gson.toJson(messageCard.toPaylod());
+    }
+}
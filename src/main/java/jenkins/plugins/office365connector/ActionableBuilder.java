@@ -27,7 +27,6 @@ import jenkins.scm.api.metadata.ContributorMetadataAction;
 import jenkins.scm.api.metadata.ObjectMetadataAction;
 import jenkins.scm.api.mixin.ChangeRequestSCMHead;
 import org.apache.commons.lang3.StringUtils;
-import org.jenkinsci.plugins.displayurlapi.DisplayURLProvider;
 
 /**
  * @author Damian Szczepanik (damianszczepanik@github)
@@ -36,12 +35,18 @@ public class ActionableBuilder {
 
     private final Run run;
     private final FactsBuilder factsBuilder;
+    private final BuildContext buildContext;
     private final List<CardAction> potentialActions = new ArrayList<>();
     private final boolean isAdaptiveCards;
 
     public ActionableBuilder(Run run, FactsBuilder factsBuilder, boolean isAdaptiveCards) {
+        this(run, factsBuilder, new BuildContext(run), isAdaptiveCards);
+    }
+
+    public ActionableBuilder(Run run, FactsBuilder factsBuilder, BuildContext buildContext, boolean isAdaptiveCards) {
         this.run = run;
         this.factsBuilder = factsBuilder;
+        this.buildContext = buildContext;
         this.isAdaptiveCards = isAdaptiveCards;
     }
 
@@ -54,7 +59,7 @@ public class ActionableBuilder {
     }
 
     private void buildViewBuild() {
-        String urlToJob = DisplayURLProvider.get().getRunURL(run);
+        String urlToJob = buildContext.getRunUrl();
         String build = Messages.Office365ConnectorWebhookNotifier_BuildPronoun();
 
         // hide action button when the build succeed
@@ -0,0 +1,168 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector;
+
+import hudson.model.Result;
+import hudson.model.Run;
+import jenkins.scm.RunWithSCM;
+import org.jenkinsci.plugins.displayurlapi.DisplayURLProvider;
+
+/**
+ * Snapshot of the build and its history that is needed to decide about and to render the notification.
+ * Every value is computed on the first use and then shared by {@link DecisionMaker} and all {@link CardBuilder}s
+ * that work on the same notification, so the previous builds are not loaded many times.
+ * History is taken from {@link ResultStreak} when possible, and from the previous builds otherwise.
+ */
+public class BuildContext {
+
+    private final Run run;
+
+    private boolean streakLoaded;
+    private ResultStreak streak;
+
+    private boolean previousResultLoaded;
+    private Result previousResult;
+    private boolean lastNotAbortedLoaded;
+    private Result lastNotAbortedResult;
+    private boolean failingSinceLoaded;
+    private Integer failingSinceBuild;
+
+    private Culprits culprits;
+
+    private String displayName;
+    private String runName;
+    private String runUrl;
+
+    public BuildContext(Run run) {
+        this.run = run;
+    }
+
+    /**
+     * Returns result of the previous build, {@link Result#SUCCESS} when there is no previous build.
+     */
+    public synchronized Result getPreviousResult() {
+        if (!previousResultLoaded) {
+            ResultStreak streak = getStreak();
+            if (streak != null) {
+                previousResult = streak.getLastResult() != null ? streak.getLastResult() : Result.SUCCESS;
+            } else {
+                Run previousBuild = run.getPreviousBuild();
+                previousResult = previousBuild != null ? previousBuild.getResult() : Result.SUCCESS;
+            }
+            previousResultLoaded = true;
+        }
+        return previousResult;
+    }
+
+    /**
+     * Returns result of the last previous build that was not aborted, <code>null</code> when there is no such build.
+     */
+    public synchronized Result getLastNotAbortedResult() {
+        if (!lastNotAbortedLoaded) {
+            ResultStreak streak = getStreak();
+            if (streak != null) {
+                lastNotAbortedResult = streak.getLastNotAbortedResult();
+            } else {
+                Run previousBuild = run.getPreviousBuild();
+                while (previousBuild != null && previousBuild.getResult() == Result.ABORTED) {
+                    previousBuild = previousBuild.getPreviousCompletedBuild();
+                }
+                lastNotAbortedResult = previousBuild != null ? previousBuild.getResult() : null;
+            }
+            lastNotAbortedLoaded = true;
+        }
+        return lastNotAbortedResult;
+    }
+
+    /**
+     * Returns number of the first failed build of the current failure streak, <code>null</code> when not known.
+     */
+    public synchronized Integer getFailingSinceBuild() {
+        if (!failingSinceLoaded) {
+            ResultStreak streak = getStreak();
+            if (streak != null) {
+                failingSinceBuild = streak.getFailingSince() > 0 ? streak.getFailingSince() : null;
+            } else {
+                Run lastNotFailedBuild = run.getPreviousNotFailedBuild();
+                Run firstFailedBuild = lastNotFailedBuild != null
+                        ? lastNotFailedBuild.getNextBuild() : run.getParent().getFirstBuild();
+                failingSinceBuild = firstFailedBuild != null ? firstFailedBuild.getNumber() : null;
+            }
+            failingSinceLoaded = true;
+        }
+        return failingSinceBuild;
+    }
+
+    /**
+     * Returns culprits of the build, <code>null</code> when the build does not support SCM.
+     */
+    public synchronized Culprits getCulprits() {
+        if (culprits == null && run instanceof RunWithSCM) {
+            culprits = Culprits.of((RunWithSCM) run);
+        }
+        return culprits;
+    }
+
+    /**
+     * Returns name of the project presented as display name with parent name such as folder.
+     */
+    public synchronized String getDisplayName() {
+        if (displayName == null) {
+            displayName = run.getParent().getFullDisplayName();
+        }
+        return displayName;
+    }
+
+    /**
+     * Returns display name with escaped special characters so the summary is not formatted
+     * when the build name contains special characters.
+     */
+    public String getEscapedDisplayName() {
+        // https://www.markdownguide.org/basic-syntax#characters-you-can-escape
+        return getDisplayName().replaceAll("([*_#-])", "\\\\$1");
+    }
+
+    public synchronized String getRunName() {
+        if (runName == null) {
+            // TODO: test case when the build number is changed to custom name
+            runName = run.hasCustomDisplayName() ? run.getDisplayName() : "#" + run.getNumber();
+        }
+        return runName;
+    }
+
+    public synchronized String getRunUrl() {
+        if (runUrl == null) {
+            runUrl = DisplayURLProvider.get().getRunURL(run);
+        }
+        return runUrl;
+    }
+
+    /**
+     * Resolves the history of the build, so it is not affected by the builds that complete
+     * while the notification is being prepared.
+     */
+    void snapshot() {
+        getPreviousResult();
+        getLastNotAbortedResult();
+        getFailingSinceBuild();
+    }
+
+    private ResultStreak getStreak() {
+        if (!streakLoaded) {
+            streak = ResultStreak.forRun(run);
+            streakLoaded = true;
+        }
+        return streak;
+    }
+}
@@ -18,7 +18,11 @@ import java.util.List;
 import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import jenkins.plugins.office365connector.jfr.FactCollectionEvent;
+import jenkins.plugins.office365connector.jfr.NotificationEvent;
 import jenkins.plugins.office365connector.model.Card;
+import jenkins.plugins.office365connector.model.CardSizeLimiter;
+import jenkins.plugins.office365connector.model.DigestEntry;
 import jenkins.plugins.office365connector.model.FactDefinition;
 import jenkins.plugins.office365connector.model.Section;
 import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCard;
@@ -34,23 +38,25 @@ public class CardBuilder {
 
     private final FactsBuilder factsBuilder;
     private final ActionableBuilder potentialActionBuilder;
+    private final BuildContext buildContext;
     private final boolean isAdaptiveCards;
 
     public CardBuilder(Run run, TaskListener taskListener, boolean isAdaptiveCards) {
+        this(run, new MacroEvaluationContext(run, taskListener), new BuildContext(run), isAdaptiveCards);
+    }
+
+    public CardBuilder(Run run, MacroEvaluationContext macroContext, BuildContext buildContext, boolean isAdaptiveCards) {
         this.run = run;
+        this.buildContext = buildContext;
         this.isAdaptiveCards = isAdaptiveCards;
 
-        factsBuilder = new FactsBuilder(run, taskListener);
-        potentialActionBuilder = new ActionableBuilder(run, factsBuilder, isAdaptiveCards);
+        factsBuilder = new FactsBuilder(run, macroContext, buildContext);
+        potentialActionBuilder = new ActionableBuilder(run, factsBuilder, buildContext, isAdaptiveCards);
     }
 
     public Card createStartedCard(List<FactDefinition> factDefinitions) {
         final String statusName = "Started";
-        factsBuilder.addStatus(statusName);
-        factsBuilder.addRemarks();
-        factsBuilder.addCommitters();
-        factsBuilder.addDevelopers();
-        factsBuilder.addUserFacts(factDefinitions);
+        addFacts(statusName, factDefinitions);
 
         Section section = buildSection(statusName);
 
@@ -58,7 +64,7 @@ public class CardBuilder {
         Card card = isAdaptiveCards ? new AdaptiveCard(summary, section, getCompletedResult(run)) : new MessageCard(summary, section);
         card.setAction(potentialActionBuilder.buildActionable());
 
-        return card;
+        return fit(card);
     }
 
     public Card createCompletedCard(List<FactDefinition> factDefinitions) {
@@ -66,27 +72,18 @@ public class CardBuilder {
         // but based on issue #133 it may happen that result for completed job is null
         Result lastResult = getCompletedResult(run);
 
-        Run previousBuild = run.getPreviousBuild();
-        Result previousResult = previousBuild != null ? previousBuild.getResult() : Result.SUCCESS;
-        Run lastNotFailedBuild = run.getPreviousNotFailedBuild();
+        Result previousResult = buildContext.getPreviousResult();
+        Integer failingSinceBuild = buildContext.getFailingSinceBuild();
 
-        boolean isRepeatedFailure = isRepeatedFailure(previousResult, lastNotFailedBuild);
+        boolean isRepeatedFailure = isRepeatedFailure(previousResult, failingSinceBuild);
         String summary = String.format("%s: Build %s %s", getDisplayName(), getRunName(),
                 calculateSummary(lastResult, previousResult, isRepeatedFailure));
         String status = calculateStatus(lastResult, previousResult, isRepeatedFailure);
 
-        if (lastResult == Result.FAILURE) {
-            Run failingSinceBuild = getFailingSinceBuild(lastNotFailedBuild);
-
-            if (failingSinceBuild != null && previousResult == Result.FAILURE) {
-                factsBuilder.addFailingSinceBuild(failingSinceBuild.getNumber());
-            }
+        if (lastResult == Result.FAILURE && isRepeatedFailure) {
+            factsBuilder.addFailingSinceBuild(failingSinceBuild);
         }
-        factsBuilder.addStatus(status);
-        factsBuilder.addRemarks();
-        factsBuilder.addCommitters();
-        factsBuilder.addDevelopers();
-        factsBuilder.addUserFacts(factDefinitions);
+        addFacts(status, factDefinitions);
 
         Section section = buildSection(status);
 
@@ -96,10 +93,35 @@ public class CardBuilder {
             card.setAction(potentialActionBuilder.buildActionable());
         }
 
-        return card;
+        return fit(card);
+    }
+
+    private void addFacts(String status, List<FactDefinition> factDefinitions) {
+        FactCollectionEvent event = new FactCollectionEvent(NotificationEvent.jobName(run));
+        event.begin();
+        factsBuilder.addStatus(status);
+        factsBuilder.addRemarks();
+        factsBuilder.addCommitters();
+        factsBuilder.addDevelopers();
+        factsBuilder.addUserFacts(factDefinitions);
+        event.setFacts(factsBuilder.collect().size());
+        event.commit();
+    }
+
+    /**
+     * Returns short summary of the completed build that is presented in the digest.
+     */
+    public DigestEntry createDigestEntry() {
+        Result lastResult = getCompletedResult(run);
+
+        Result previousResult = buildContext.getPreviousResult();
+        boolean isRepeatedFailure = isRepeatedFailure(previousResult, buildContext.getFailingSinceBuild());
+        String status = calculateStatus(lastResult, previousResult, isRepeatedFailure);
+
+        return new DigestEntry(getDisplayName(), getRunName(), status, lastResult, buildContext.getRunUrl());
     }
 
-    private static String getCardThemeColor(Result result) {
+    static String getCardThemeColor(Result result) {
         if (result == Result.SUCCESS) {
             // Return green for success
             return "#00FF00";
@@ -114,15 +136,8 @@ public class CardBuilder {
         return new Section(activityTitle, activitySubtitle, factsBuilder.collect());
     }
 
-    private boolean isRepeatedFailure(Result previousResult, Run lastNotFailedBuild) {
-        Run failingSinceRun = getFailingSinceBuild(lastNotFailedBuild);
-
-        return failingSinceRun != null && previousResult == Result.FAILURE;
-    }
-
-    private Run getFailingSinceBuild(Run lastNotFailedBuild) {
-        return lastNotFailedBuild != null
-                ? lastNotFailedBuild.getNextBuild() : run.getParent().getFirstBuild();
+    private boolean isRepeatedFailure(Result previousResult, Integer failingSinceBuild) {
+        return failingSinceBuild != null && previousResult == Result.FAILURE;
     }
 
     String calculateStatus(Result lastResult, Result previousResult, boolean isRepeatedFailure) {
@@ -200,30 +215,27 @@ public class CardBuilder {
 
         card.setAction(potentialActionBuilder.buildActionable());
 
-        return card;
+        return fit(card);
     }
 
     /**
-     * Returns escaped name of the job presented as display name with parent name such as folder.
-     * Parent is needed for multi-branch pipelines and for cases when job
+     * Reduces the card so it is not rejected by the webhook because of its size.
      */
+    static Card fit(Card card) {
+        Webhook.DescriptorImpl global = Webhook.DescriptorImpl.getGlobal();
+        int maxSize = global == null ? CardSizeLimiter.DEFAULT_MAX_SIZE : global.getMaxPayloadSize();
+        return CardSizeLimiter.fit(card, maxSize, FactsBuilder.REQUIRED_FACTS);
+    }
+
     private String getEscapedDisplayName() {
-        String displayName = getDisplayName();
-        // escape special characters so the summary is not formatted
-        // when the build name contains special characters
-        // https://www.markdownguide.org/basic-syntax#characters-you-can-escape
-        return displayName.replaceAll("([*_#-])", "\\\\$1");
+        return buildContext.getEscapedDisplayName();
     }
 
-    /**
-     * Returns name of the project.
-     */
     private String getDisplayName() {
-        return run.getParent().getFullDisplayName();
+        return buildContext.getDisplayName();
     }
 
     private String getRunName() {
-        // TODO: test case when the build number is changed to custom name
-        return run.hasCustomDisplayName() ? run.getDisplayName() : "#" + run.getNumber();
+        return buildContext.getRunName();
     }
 }
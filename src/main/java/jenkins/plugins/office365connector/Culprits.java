@@ -0,0 +1,125 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.User;
+import hudson.scm.ChangeLogSet;
+import jenkins.scm.RunWithSCM;
+import jenkins.util.SystemProperties;
+
+/**
+ * Names of the users who are likely to be responsible for the build result.
+ * By default they are taken from {@link RunWithSCM#getCulprits()} which, for the failing build, inherits culprits
+ * of all previous failing builds. When the depth or time budget is set, the previous builds are walked by the plugin
+ * and the walking stops when any limit is reached, then the list is marked as partial.
+ */
+public class Culprits {
+
+    /**
+     * Maximum number of previous failing builds that are examined, <code>0</code> when not limited.
+     */
+    static final int MAX_DEPTH = SystemProperties.getInteger(Culprits.class.getName() + ".maxDepth", 0);
+
+    /**
+     * Time (in milliseconds) after which previous builds are not examined anymore, <code>0</code> when not limited.
+     */
+    static final long TIME_BUDGET_MILLIS = SystemProperties.getLong(Culprits.class.getName() + ".timeBudget", 0L);
+
+    private final List<String> names;
+    private final boolean partial;
+
+    private Culprits(List<String> names, boolean partial) {
+        this.names = Collections.unmodifiableList(names);
+        this.partial = partial;
+    }
+
+    public static Culprits of(RunWithSCM run) {
+        return of(run, MAX_DEPTH, TIME_BUDGET_MILLIS);
+    }
+
+    static Culprits of(RunWithSCM run, int maxDepth, long timeBudgetMillis) {
+        if (maxDepth <= 0 && timeBudgetMillis <= 0) {
+            Set<User> culprits = run.getCulprits();
+            List<String> names = new ArrayList<>(culprits.size());
+            for (User culprit : culprits) {
+                names.add(culprit.getFullName());
+            }
+            return new Culprits(names, false);
+        }
+        return walk(run, maxDepth, timeBudgetMillis);
+    }
+
+    /**
+     * Collects authors of the build and all previous failing builds, same as {@link RunWithSCM#getCulprits()} does,
+     * but stops when the limit is reached.
+     */
+    private static Culprits walk(RunWithSCM run, int maxDepth, long timeBudgetMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        Set<String> ids = new LinkedHashSet<>();
+        List<String> names = new ArrayList<>();
+        addAuthors(run, ids, names);
+
+        int depth = 0;
+        Run previousBuild = ((Run) run).getPreviousCompletedBuild();
+        while (previousBuild != null && isFailed(previousBuild)) {
+            if (maxDepth > 0 && depth >= maxDepth
+                    || timeBudgetMillis > 0 && System.nanoTime() - deadline > 0) {
+                return new Culprits(names, true);
+            }
+            if (previousBuild instanceof RunWithSCM) {
+                addAuthors((RunWithSCM) previousBuild, ids, names);
+            }
+            depth++;
+            previousBuild = previousBuild.getPreviousCompletedBuild();
+        }
+        return new Culprits(names, false);
+    }
+
+    private static boolean isFailed(Run build) {
+        Result result = build.getResult();
+        return result != null && result.isWorseThan(Result.SUCCESS);
+    }
+
+    private static void addAuthors(RunWithSCM run, Set<String> ids, List<String> names) {
+        List<ChangeLogSet<? extends ChangeLogSet.Entry>> sets = run.getChangeSets();
+        for (ChangeLogSet<? extends ChangeLogSet.Entry> set : sets) {
+            for (ChangeLogSet.Entry entry : set) {
+                User author = entry.getAuthor();
+                if (author != null && ids.add(author.getId() != null ? author.getId() : author.getFullName())) {
+                    names.add(author.getFullName());
+                }
+            }
+        }
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Returns <code>true</code> when not all previous builds have been examined so some culprits might be missing.
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+}
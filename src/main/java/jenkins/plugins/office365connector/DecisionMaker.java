@@ -13,16 +13,15 @@
  */
 package jenkins.plugins.office365connector;
 
-import java.io.File;
-import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
 
-import hudson.FilePath;
 import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import jenkins.plugins.office365connector.jfr.NotificationEvent;
+import jenkins.plugins.office365connector.jfr.RuleEvaluationEvent;
 import jenkins.plugins.office365connector.model.Macro;
-import org.jenkinsci.plugins.tokenmacro.MacroEvaluationException;
-import org.jenkinsci.plugins.tokenmacro.TokenMacro;
 
 /**
  * Provides methods that help to decide if the notification should be sent or skipped.
@@ -35,13 +34,20 @@ public class DecisionMaker {
     private final TaskListener taskListener;
 
     private final Result previousResult;
+    private final MacroEvaluationContext macroContext;
+    private final BuildContext buildContext;
 
     public DecisionMaker(Run run, TaskListener listener) {
+        this(run, listener, new MacroEvaluationContext(run, listener), new BuildContext(run));
+    }
+
+    public DecisionMaker(Run run, TaskListener listener, MacroEvaluationContext macroContext, BuildContext buildContext) {
         this.run = run;
         this.taskListener = listener;
+        this.macroContext = macroContext;
+        this.buildContext = buildContext;
 
-        Run previousBuild = run.getPreviousBuild();
-        previousResult = previousBuild != null ? previousBuild.getResult() : Result.SUCCESS;
+        previousResult = buildContext.getPreviousResult();
     }
 
     /**
@@ -54,15 +60,25 @@ public class DecisionMaker {
         if (webhook.getMacros().isEmpty()) {
             return true;
         } else {
-            for (Macro macro : webhook.getMacros()) {
-                String evaluated = evaluateMacro(macro.getTemplate());
-                if (evaluated.equals(macro.getValue())) {
-                    log("Matched template '%s' for webhook with name '%s'.", macro.getTemplate(), webhook.getName());
-                    return true;
-                }
+            RuleEvaluationEvent event = new RuleEvaluationEvent(NotificationEvent.jobName(run), webhook.getName());
+            event.begin();
+            boolean matched = isAtLeastOneMacroMatched(webhook);
+            event.setMacros(webhook.getMacros().size());
+            event.setMatched(matched);
+            event.commit();
+            return matched;
+        }
+    }
+
+    private boolean isAtLeastOneMacroMatched(Webhook webhook) {
+        for (Macro macro : webhook.getMacros()) {
+            String evaluated = evaluateMacro(macro.getTemplate());
+            if (evaluated.equals(macro.getValue())) {
+                log("Matched template '%s' for webhook with name '%s'.", macro.getTemplate(), webhook.getName());
+                return true;
             }
-            return false;
         }
+        return false;
     }
 
     /**
@@ -89,6 +105,30 @@ public class DecisionMaker {
         return statusMatched;
     }
 
+    /**
+     * Returns events that describe the completed build, used to find webhooks that should be notified.
+     */
+    public Set<WebhookRoutes.Event> getCompletedEvents() {
+        Result result = run.getResult();
+        Set<WebhookRoutes.Event> events = EnumSet.noneOf(WebhookRoutes.Event.class);
+        if (result == Result.SUCCESS) {
+            events.add(WebhookRoutes.Event.SUCCESS);
+            if (isBackToNormal()) {
+                events.add(WebhookRoutes.Event.BACK_TO_NORMAL);
+            }
+        } else if (result == Result.FAILURE) {
+            events.add(previousResult == Result.FAILURE
+                    ? WebhookRoutes.Event.REPEATED_FAILURE : WebhookRoutes.Event.FAILURE);
+        } else if (result == Result.UNSTABLE) {
+            events.add(WebhookRoutes.Event.UNSTABLE);
+        } else if (result == Result.ABORTED) {
+            events.add(WebhookRoutes.Event.ABORTED);
+        } else if (result == Result.NOT_BUILT) {
+            events.add(WebhookRoutes.Event.NOT_BUILT);
+        }
+        return events;
+    }
+
     private boolean isNotifyAborted(Result result, Webhook webhook) {
         return webhook.isNotifyAborted()
                 && result == Result.ABORTED;
@@ -116,22 +156,12 @@ public class DecisionMaker {
         if (!webhook.isNotifyBackToNormal() || result != Result.SUCCESS) {
             return false;
         }
-
-        Run previousBuild = findLastCompletedBuild();
-        if (previousBuild == null) {
-            return false;
-        } else {
-            Result previousResult = previousBuild.getResult();
-            return (previousResult == Result.FAILURE || previousResult == Result.UNSTABLE);
-        }
+        return isBackToNormal();
     }
 
-    private Run findLastCompletedBuild() {
-        Run previousBuild = run.getPreviousBuild();
-        while (previousBuild != null && previousBuild.getResult() == Result.ABORTED) {
-            previousBuild = previousBuild.getPreviousCompletedBuild();
-        }
-        return previousBuild;
+    private boolean isBackToNormal() {
+        Result previousResult = buildContext.getLastNotAbortedResult();
+        return previousResult == Result.FAILURE || previousResult == Result.UNSTABLE;
     }
 
     private boolean isNotifySuccess(Result result, Webhook webhook) {
@@ -145,12 +175,7 @@ public class DecisionMaker {
     }
 
     private String evaluateMacro(String template) {
-        try {
-            File workspace = run.getRootDir();
-            return TokenMacro.expandAll(run, new FilePath(workspace), taskListener, template);
-        } catch (InterruptedException | IOException | MacroEvaluationException e) {
-            throw new IllegalArgumentException(e);
-        }
+        return macroContext.evaluate(template);
     }
 
     /**
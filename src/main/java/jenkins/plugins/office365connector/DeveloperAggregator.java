@@ -0,0 +1,126 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import hudson.model.User;
+import hudson.scm.ChangeLogSet;
+import jenkins.util.SystemProperties;
+
+/**
+ * Counts commits of the change log authors and presents the most active ones. Only the identifier, name and number
+ * of commits is kept for every author so the huge change log does not keep all its users in memory.
+ * Walking the change log stops when the time budget is used, so merge of thousands of commits does not delay
+ * the notification.
+ */
+public class DeveloperAggregator {
+
+    public static final int DEFAULT_LIMIT = 10;
+
+    /**
+     * Time (in milliseconds) after which the remaining entries of the change log are skipped.
+     */
+    static final long TIME_BUDGET_MILLIS = SystemProperties.getLong(DeveloperAggregator.class.getName() + ".timeBudget", 500L);
+
+    /**
+     * Reading the clock is not free so the budget is checked once every this number of entries.
+     */
+    private static final int CHECK_INTERVAL = 64;
+
+    private final int limit;
+    private final long deadline;
+
+    private final Map<String, Author> authors = new HashMap<>();
+    private int entries;
+    private boolean complete = true;
+
+    public DeveloperAggregator(int limit) {
+        this(limit, TIME_BUDGET_MILLIS);
+    }
+
+    DeveloperAggregator(int limit, long timeBudgetMillis) {
+        this.limit = limit;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    /**
+     * Counts the commit of the entry author.
+     *
+     * @return <code>false</code> when the time budget has been used and the remaining entries should be skipped
+     */
+    public boolean add(ChangeLogSet.Entry entry) {
+        if (!complete) {
+            return false;
+        }
+        if (++entries % CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+            complete = false;
+            return false;
+        }
+        User user = entry.getAuthor();
+        if (user == null) {
+            return true;
+        }
+        // identifier is cheaper than the full name which might be loaded from user configuration
+        String id = user.getId();
+        Author author = authors.get(id != null ? id : user.getFullName());
+        if (author == null) {
+            String fullName = user.getFullName();
+            author = new Author(fullName);
+            authors.put(id != null ? id : fullName, author);
+        }
+        author.commits++;
+        return true;
+    }
+
+    /**
+     * Returns names of the most active authors, followed by the number of the others.
+     */
+    public String summarize() {
+        List<Author> sorted = new ArrayList<>(authors.values());
+        sorted.sort(Comparator.comparingInt((Author author) -> author.commits).reversed()
+                .thenComparing(author -> author.name, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        List<Author> top = sorted.subList(0, Math.min(limit, sorted.size()));
+        StringBuilder summary = new StringBuilder(top.stream()
+                .map(author -> author.name)
+                .collect(Collectors.joining(", ")));
+
+        int others = sorted.size() - top.size();
+        if (others > 0) {
+            summary.append(complete ? " and " : " and at least ")
+                    .append(others)
+                    .append(others == 1 ? " other" : " others");
+        } else if (!complete && !top.isEmpty()) {
+            summary.append(" and others");
+        }
+        return summary.toString();
+    }
+
+    private static final class Author {
+
+        private final String name;
+        private int commits;
+
+        private Author(String name) {
+            this.name = name;
+        }
+    }
+}
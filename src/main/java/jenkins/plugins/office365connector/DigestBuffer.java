@@ -0,0 +1,168 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.init.Terminator;
+import hudson.model.Result;
+import hudson.util.LogTaskListener;
+import jenkins.plugins.office365connector.delivery.NotificationPipeline;
+import jenkins.plugins.office365connector.delivery.RetryPolicy;
+import jenkins.plugins.office365connector.model.Card;
+import jenkins.plugins.office365connector.model.DigestEntry;
+import jenkins.plugins.office365connector.model.Fact;
+import jenkins.plugins.office365connector.model.Section;
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCard;
+import jenkins.plugins.office365connector.model.messagecard.MessageCard;
+import jenkins.util.Timer;
+
+/**
+ * Collects completed builds of the webhooks that work in digest mode and sends them as the single card,
+ * either when the digest interval has passed or when the digest is full.
+ */
+public final class DigestBuffer {
+
+    private static final Logger LOGGER = Logger.getLogger(DigestBuffer.class.getName());
+
+    /**
+     * Milestone of the shutdown after which the digests do not send any notification.
+     */
+    public static final String FLUSHED = "office365connector.digests-flushed";
+
+    private static final DigestBuffer INSTANCE = new DigestBuffer();
+
+    private final Map<String, Digest> digests = new HashMap<>();
+    private boolean stopped;
+
+    DigestBuffer() {
+    }
+
+    public static DigestBuffer get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds the build to the digest of the webhook.
+     *
+     * @param url     expanded url of the webhook
+     * @param webhook webhook that provides the digest and delivery settings
+     * @param entry   completed build
+     * @throws RejectedExecutionException when the digests have been already sent on shutdown
+     */
+    public void add(String url, Webhook webhook, DigestEntry entry) {
+        String key = url + "|" + webhook.isAdaptiveCards();
+        Digest full = null;
+        synchronized (this) {
+            if (stopped) {
+                throw new RejectedExecutionException("Digests have been sent on shutdown");
+            }
+            Digest digest = digests.get(key);
+            if (digest == null) {
+                digest = new Digest(url, webhook);
+                digests.put(key, digest);
+                Digest scheduled = digest;
+                digest.flush = Timer.get().schedule(() -> flush(key, scheduled),
+                        webhook.getDigestInterval(), TimeUnit.SECONDS);
+            }
+            digest.entries.add(entry);
+            if (digest.entries.size() >= webhook.getDigestSize()) {
+                digests.remove(key);
+                digest.flush.cancel(false);
+                full = digest;
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+    }
+
+    private void flush(String key, Digest digest) {
+        synchronized (this) {
+            if (digests.get(key) != digest) {
+                // already sent because it was full
+                return;
+            }
+            digests.remove(key);
+        }
+        send(digest);
+    }
+
+    private static void send(Digest digest) {
+        String data = Office365ConnectorWebhookNotifier.toJson(createCard(digest.entries, digest.adaptiveCards));
+        new HttpWorker(digest.url, data, digest.timeout, digest.retryPolicy, digest.logger).submit();
+    }
+
+    static Card createCard(List<DigestEntry> entries, boolean adaptiveCards) {
+        List<Fact> facts = new ArrayList<>();
+        Result worstResult = Result.SUCCESS;
+        for (DigestEntry entry : entries) {
+            facts.add(new Fact(entry.getJobName() + " " + entry.getRunName(),
+                    String.format("[%s](%s)", entry.getStatus(), entry.getUrl())));
+            worstResult = worstResult.combine(entry.getResult());
+        }
+        String builds = entries.size() == 1 ? "build" : "builds";
+        String summary = String.format("%d %s completed", entries.size(), builds);
+        Section section = new Section("Build digest", String.format("Latest status of %d %s", entries.size(), builds), facts);
+
+        Card card = adaptiveCards ? new AdaptiveCard(summary, section, worstResult) : new MessageCard(summary, section);
+        card.setThemeColor(CardBuilder.getCardThemeColor(worstResult));
+        return CardBuilder.fit(card);
+    }
+
+    /**
+     * Sends all waiting digests so the builds are not lost on shutdown.
+     */
+    @Terminator(requires = NotificationPipeline.STOPPED, attains = FLUSHED)
+    public static void shutdown() {
+        List<Digest> pending;
+        synchronized (INSTANCE) {
+            INSTANCE.stopped = true;
+            pending = new ArrayList<>(INSTANCE.digests.values());
+            INSTANCE.digests.clear();
+        }
+        for (Digest digest : pending) {
+            digest.flush.cancel(false);
+            send(digest);
+        }
+    }
+
+    private static final class Digest {
+
+        private final String url;
+        private final boolean adaptiveCards;
+        private final int timeout;
+        private final RetryPolicy retryPolicy;
+        private final PrintStream logger = new LogTaskListener(LOGGER, Level.INFO).getLogger();
+        private final List<DigestEntry> entries = new ArrayList<>();
+        private ScheduledFuture<?> flush;
+
+        Digest(String url, Webhook webhook) {
+            this.url = url;
+            this.adaptiveCards = webhook.isAdaptiveCards();
+            this.timeout = webhook.getTimeout();
+            this.retryPolicy = new RetryPolicy(webhook.getMaxAttempts(),
+                    TimeUnit.SECONDS.toMillis(webhook.getMaxElapsedTime()));
+        }
+    }
+}
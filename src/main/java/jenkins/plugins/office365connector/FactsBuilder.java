@@ -13,28 +13,19 @@
  */
 package jenkins.plugins.office365connector;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import hudson.FilePath;
 import hudson.model.Cause;
 import hudson.model.Run;
 import hudson.model.TaskListener;
-import hudson.model.User;
 import hudson.scm.ChangeLogSet;
 import jenkins.plugins.office365connector.model.Fact;
 import jenkins.plugins.office365connector.model.FactDefinition;
 import jenkins.scm.RunWithSCM;
 import org.apache.commons.lang3.StringUtils;
-import org.jenkinsci.plugins.tokenmacro.MacroEvaluationException;
-import org.jenkinsci.plugins.tokenmacro.TokenMacro;
 
 /**
  * Collects helper methods that create instance of {@link jenkins.plugins.office365connector.model.Fact Fact} class.
@@ -50,14 +41,29 @@ public class FactsBuilder {
 
     final static String NAME_FAILING_SINCE_BUILD = "Failing since";
 
+    /**
+     * Facts that are kept even if the card has to be reduced to fit the payload limit.
+     */
+    final static Set<String> REQUIRED_FACTS = Set.of(NAME_STATUS, NAME_FAILING_SINCE_BUILD);
+
     private final List<Fact> facts = new ArrayList<>();
 
     private final Run run;
-    private final TaskListener taskListener;
+    private final MacroEvaluationContext macroContext;
+    private final BuildContext buildContext;
 
     public FactsBuilder(Run run, TaskListener listener) {
+        this(run, new MacroEvaluationContext(run, listener));
+    }
+
+    public FactsBuilder(Run run, MacroEvaluationContext macroContext) {
+        this(run, macroContext, new BuildContext(run));
+    }
+
+    public FactsBuilder(Run run, MacroEvaluationContext macroContext, BuildContext buildContext) {
         this.run = run;
-        this.taskListener = listener;
+        this.macroContext = macroContext;
+        this.buildContext = buildContext;
     }
 
     public void addStatus(String status) {
@@ -82,12 +88,13 @@ public class FactsBuilder {
         if (!(run instanceof RunWithSCM)) {
             return;
         }
-        RunWithSCM runWithSCM = (RunWithSCM) run;
-        Set<User> authors = runWithSCM.getCulprits();
+        // culprits are shared by all cards of the build as they might come from many previous builds
+        Culprits culprits = buildContext.getCulprits();
 
-        String joinedCommitters = authors.stream()
-                .map(User::getFullName)
-                .collect(Collectors.joining(", "));
+        String joinedCommitters = String.join(", ", culprits.getNames());
+        if (culprits.isPartial() && !joinedCommitters.isEmpty()) {
+            joinedCommitters += " (partial list)";
+        }
         addFact(COMMITTERS, joinedCommitters);
     }
 
@@ -99,23 +106,22 @@ public class FactsBuilder {
 
         List<ChangeLogSet<ChangeLogSet.Entry>> sets = runWithSCM.getChangeSets();
 
-        Set<User> authors = new HashSet<>();
-        sets.stream()
-                .filter(set -> set instanceof ChangeLogSet)
-                .forEach(set -> set
-                        .forEach(entry -> authors.add(entry.getAuthor())));
+        Webhook.DescriptorImpl global = Webhook.DescriptorImpl.getGlobal();
+        DeveloperAggregator aggregator = new DeveloperAggregator(
+                global == null ? DeveloperAggregator.DEFAULT_LIMIT : global.getMaxDevelopers());
+        collectAuthors(sets, aggregator);
 
-        addFact(NAME_DEVELOPERS, StringUtils.join(sortUsers(authors), ", "));
+        addFact(NAME_DEVELOPERS, aggregator.summarize());
     }
 
-    /**
-     * Users should be stored in set to eliminate duplicates and sorted so the results
-     * are presented same and deterministic way.
-     */
-    private Collection sortUsers(Set<User> authors) {
-        return authors.stream()
-                .sorted(Comparator.comparing(User::getFullName))
-                .collect(Collectors.toList());
+    private static void collectAuthors(List<ChangeLogSet<ChangeLogSet.Entry>> sets, DeveloperAggregator aggregator) {
+        for (ChangeLogSet<ChangeLogSet.Entry> set : sets) {
+            for (ChangeLogSet.Entry entry : set) {
+                if (!aggregator.add(entry)) {
+                    return;
+                }
+            }
+        }
     }
 
     public void addUserFacts(List<FactDefinition> factDefinitions) {
@@ -126,14 +132,8 @@ public class FactsBuilder {
         }
     }
 
-    // ToDo: this code is redundant and should be merged with DecisionMaker#evaluateMacro
     private String evaluateMacro(String template) {
-        try {
-            File workspace = run.getRootDir();
-            return TokenMacro.expandAll(run, new FilePath(workspace), taskListener, template);
-        } catch (InterruptedException | IOException | MacroEvaluationException e) {
-            throw new IllegalArgumentException(e);
-        }
+        return macroContext.evaluate(template);
     }
 
     public void addFact(String name, String value) {
@@ -13,146 +13,336 @@
  */
 package jenkins.plugins.office365connector;
 
-import hudson.ProxyConfiguration;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
-
-import jenkins.model.Jenkins;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.hc.client5.http.config.ConnectionConfig;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
-import org.apache.hc.core5.http.ClassicHttpResponse;
-import org.apache.hc.core5.http.HttpHost;
-import org.apache.hc.core5.http.HttpStatus;
-import org.apache.hc.client5.http.auth.AuthScope;
-import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
-import org.apache.hc.client5.http.config.RequestConfig;
-import org.apache.hc.client5.http.classic.methods.HttpPost;
-import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
-import org.apache.hc.core5.http.ContentType;
-import org.apache.hc.core5.http.ParseException;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.StringEntity;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.util.LogTaskListener;
+import jenkins.plugins.office365connector.delivery.CircuitBreaker;
+import jenkins.plugins.office365connector.delivery.DeliveryEngine;
+import jenkins.plugins.office365connector.delivery.DeliveryMetrics;
+import jenkins.plugins.office365connector.delivery.DeliveryRecord;
+import jenkins.plugins.office365connector.delivery.DeliveryResult;
+import jenkins.plugins.office365connector.delivery.Endpoints;
+import jenkins.plugins.office365connector.delivery.Outbox;
+import jenkins.plugins.office365connector.delivery.OutboxEntry;
+import jenkins.plugins.office365connector.delivery.Priority;
+import jenkins.plugins.office365connector.delivery.RateLimiter;
+import jenkins.plugins.office365connector.delivery.RecentDeliveries;
+import jenkins.plugins.office365connector.delivery.RetryPolicy;
+import jenkins.plugins.office365connector.jfr.DeliveryAttemptEvent;
+import jenkins.util.Timer;
 
 /**
- * Makes http post requests in a separate thread.
+ * Makes http post requests in a separate thread provided by {@link DeliveryEngine}.
+ * Depending on the global configuration the request is sent by blocking or asynchronous transport.
+ * Requests to the same webhook are throttled by {@link RateLimiter}, requests to the webhook that keeps failing
+ * are held back by {@link CircuitBreaker} and failed requests are repeated
+ * according to {@link RetryPolicy}, the waiting is done by the timer so the delivery threads are not blocked.
+ * Notifications are kept in {@link Outbox} until they are delivered so they are sent again after restart.
+ * Waiting, responses and retries are measured by {@link DeliveryMetrics}.
  * curl -X POST -H "Content-Type: application/json" -d "@completed-success.json" "https://webhook.office.com/webhookb2..." -vs
  */
-public class HttpWorker implements Runnable {
+public class HttpWorker implements Priority.Task {
 
-    private final ExecutorService executorService = Executors.newCachedThreadPool();
+    private static final Logger LOGGER = Logger.getLogger(HttpWorker.class.getName());
+
+    /**
+     * Delay before the notification that did not fit into the delivery queue is queued again.
+     */
+    private static final long QUEUE_FULL_DELAY_MILLIS = 30_000;
 
     private final PrintStream logger;
 
     private final String url;
     private final String data;
     private final int timeout;
+    private final RetryPolicy retryPolicy;
+    private final String job;
+    private final int build;
 
-    private static final int RETRIES = 3;
+    private final long createdAt;
+    private final List<Long> attemptedAt = new ArrayList<>();
+    private int lastStatusCode;
+    private Consumer<DeliveryRecord> completionListener;
+    private Priority priority = Priority.NORMAL;
+    private long queuedAt;
+    private long sentAt;
+    private DeliveryAttemptEvent attemptEvent;
+    private byte[] payload;
+    private int tried;
+    private boolean permitReserved;
+    private boolean stored;
+    private long outboxId;
 
-    public HttpWorker(String url, String data, int timeout, PrintStream logger) {
+    public HttpWorker(String url, String data, int timeout, RetryPolicy retryPolicy, PrintStream logger) {
+        this(url, data, timeout, retryPolicy, logger, null, 0);
+    }
+
+    /**
+     * @param job   full name of the job that sends the notification
+     * @param build number of the build that sends the notification
+     */
+    public HttpWorker(String url, String data, int timeout, RetryPolicy retryPolicy, PrintStream logger,
+                      String job, int build) {
+        this(url, data, timeout, retryPolicy, logger, job, build, System.currentTimeMillis());
+    }
+
+    private HttpWorker(String url, String data, int timeout, RetryPolicy retryPolicy, PrintStream logger,
+                       String job, int build, long createdAt) {
         this.url = url;
         this.data = data;
         this.timeout = timeout;
+        this.retryPolicy = retryPolicy;
         this.logger = logger;
+        this.job = job;
+        this.build = build;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Sets the callback that receives the outcome of the notification once it is delivered or given up.
+     */
+    public void setCompletionListener(Consumer<DeliveryRecord> completionListener) {
+        this.completionListener = completionListener;
+    }
+
+    /**
+     * Sets the priority of the notification in the delivery queue.
+     */
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return priority;
+    }
+
+    @Override
+    public void onDropped() {
+        log("Notification to %s has been dropped from the delivery queue for more important notifications",
+                Endpoints.mask(url));
+        defer();
     }
 
     /**
-     * Sends the notification to the hook.
+     * Stores the notification in the outbox and sends it to the hook. When the delivery queue is full
+     * the notification is queued again later like the retries are.
      */
     public void submit() {
-        executorService.submit(this);
+        if (!stored) {
+            store();
+        }
+        retry();
+    }
+
+    private void store() {
+        stored = true;
+        Outbox outbox = Outbox.get();
+        if (outbox == null) {
+            return;
+        }
+        OutboxEntry entry = new OutboxEntry(0, url, data, timeout,
+                retryPolicy.getMaxAttempts(), retryPolicy.getMaxElapsedMillis(), createdAt, priority);
+        try {
+            outboxId = outbox.append(entry);
+        } catch (IOException e) {
+            log("Failed to store notification to %s, it will not be sent again after restart", Endpoints.mask(url));
+            e.printStackTrace(logger);
+        }
+    }
+
+    /**
+     * Removes the notification from the outbox when it has been delivered or abandoned
+     * and records its outcome in {@link RecentDeliveries}. Notification dropped because of the full queue
+     * stays in the outbox and is sent again after restart.
+     */
+    private void complete(DeliveryRecord.Status status) {
+        Outbox outbox = Outbox.get();
+        if (outboxId != 0 && outbox != null && status != DeliveryRecord.Status.DROPPED) {
+            outbox.acknowledge(outboxId);
+        }
+        long[] attempts = attemptedAt.stream().mapToLong(Long::longValue).toArray();
+        int payloadSize = payload != null ? payload.length : data.getBytes(StandardCharsets.UTF_8).length;
+        DeliveryRecord record = new DeliveryRecord(job, build, Endpoints.mask(url), status, lastStatusCode,
+                payloadSize, createdAt, System.currentTimeMillis(), attempts);
+        RecentDeliveries.get().add(record);
+        if (completionListener != null) {
+            try {
+                completionListener.accept(record);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to record outcome of notification to " + Endpoints.mask(url), e);
+            }
+        }
+    }
+
+    /**
+     * Sends again notifications that had not been delivered before the controller was stopped.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void redeliver() {
+        Outbox outbox = Outbox.get();
+        if (outbox == null) {
+            return;
+        }
+        List<OutboxEntry> entries;
+        try {
+            entries = outbox.recover();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to read notification outbox", e);
+            return;
+        }
+        if (!entries.isEmpty()) {
+            LOGGER.log(Level.INFO, "Sending {0} notifications that had not been delivered before restart", entries.size());
+        }
+        PrintStream logger = new LogTaskListener(LOGGER, Level.INFO).getLogger();
+        for (OutboxEntry entry : entries) {
+            HttpWorker worker = new HttpWorker(entry.getUrl(), entry.getData(), entry.getTimeout(),
+                    new RetryPolicy(entry.getMaxAttempts(), entry.getMaxElapsedMillis()), logger, null, 0, entry.getCreatedAt());
+            worker.stored = true;
+            worker.outboxId = entry.getId();
+            worker.setPriority(entry.getPriority());
+            worker.retry();
+        }
     }
 
     @Override
     public void run() {
-        int tried = 0;
-        boolean success = false;
-        CloseableHttpClient client = getHttpClient();
-        do {
-            tried++;
-            HttpPost post = new HttpPost(url);
-
-            // uncomment to log what message has been sent
-            // log("Posted JSON: %s", data);
-            post.setEntity(new StringEntity(data, ContentType.APPLICATION_JSON));
-
-            try (ClassicHttpResponse httpResponse = client.execute(post, classicHttpResponse -> classicHttpResponse)) {
-                int responseCode = httpResponse.getCode();
-                if (responseCode >= HttpStatus.SC_BAD_REQUEST) {
-                    log("Posting data to %s may have failed. Webhook responded with status code - %s", url, responseCode);
-                    String response =
-                            EntityUtils.toString(httpResponse.getEntity(), StandardCharsets.UTF_8);
-                    log("Message from webhook - %s", response);
-
-                } else {
-                    success = true;
-                }
-            } catch (IOException | ParseException e) {
-                log("Failed to post data to webhook - %s", url);
-                e.printStackTrace(logger);
+        if (queuedAt != 0) {
+            // measured once per queuing, not when the notification comes back after waiting for permit or breaker
+            DeliveryMetrics.get().recordQueueWait(url, System.nanoTime() - queuedAt);
+            queuedAt = 0;
+        }
+        if (!permitReserved) {
+            // permit is reserved only for the request that the breaker lets through
+            long breakMillis = CircuitBreaker.get().acquire(url);
+            if (breakMillis > 0) {
+                park(breakMillis);
+                return;
             }
-        } while (tried < RETRIES && !success);
-
-    }
-
-    private CloseableHttpClient getHttpClient() {
-        HttpClientBuilder builder = HttpClientBuilder.create();
-        Jenkins jenkins = Jenkins.get();
-        ProxyConfiguration proxy = jenkins.proxy;
-        if (proxy != null) {
-            List<Pattern> noHostProxyPatterns = proxy.getNoProxyHostPatterns();
-            if (!isNoProxyHost(this.url, noHostProxyPatterns)) {
-                builder.setProxy(new HttpHost(proxy.name, proxy.port));
-                String username = proxy.getUserName();
-                String password = proxy.getSecretPassword().getPlainText();
-                // Consider it to be passed if username specified. Sufficient?
-                if (StringUtils.isNotBlank(username)) {
-                    BasicCredentialsProvider credsProvider = new BasicCredentialsProvider();
-                    credsProvider.setCredentials(
-                            new AuthScope(proxy.name, proxy.port),
-                            new UsernamePasswordCredentials(username, password.toCharArray()));
-                    builder.setDefaultCredentialsProvider(credsProvider);
-                }
+            long wait = RateLimiter.get().reserve(url);
+            if (wait > 0) {
+                // permit is already reserved, wait for it instead of rejecting the notification
+                permitReserved = true;
+                Timer.get().schedule(this::resume, wait, TimeUnit.MILLISECONDS);
+                return;
             }
         }
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectionRequestTimeout(timeout, TimeUnit.MILLISECONDS)
-                .build();
+        permitReserved = false;
+
+        tried++;
+        attemptedAt.add(System.currentTimeMillis());
+        // uncomment to log what message has been sent
+        // log("Posted JSON: %s", data);
+        if (payload == null) {
+            // encoded once and reused by the retries
+            payload = data.getBytes(StandardCharsets.UTF_8);
+        }
+        DeliveryMetrics.get().recordRequestStarted();
+        attemptEvent = new DeliveryAttemptEvent(job, Endpoints.mask(url), tried, payload.length);
+        attemptEvent.begin();
+        sentAt = System.nanoTime();
+        DeliveryEngine.get().getTransport().send(url, payload, timeout, this::onResult);
+    }
+
+    /**
+     * Waits until the webhook that keeps failing can be tried again without sending the request.
+     */
+    private void park(long delay) {
+        long elapsed = System.currentTimeMillis() - createdAt;
+        if (elapsed + delay > retryPolicy.getMaxElapsedMillis()) {
+            log("Giving up notification to %s, webhook is not available", Endpoints.mask(url));
+            complete(DeliveryRecord.Status.ABANDONED);
+            return;
+        }
+        log("Webhook %s is not available, notification will be sent in %s seconds", Endpoints.mask(url),
+                TimeUnit.MILLISECONDS.toSeconds(delay));
+        Timer.get().schedule(this::resume, delay, TimeUnit.MILLISECONDS);
+    }
 
-        ConnectionConfig connectionConfig = ConnectionConfig.custom()
-                .setConnectTimeout(timeout, TimeUnit.MILLISECONDS)
-                .setSocketTimeout(timeout, TimeUnit.MILLISECONDS)
-                .build();
+    private void onResult(DeliveryResult result) {
+        DeliveryMetrics.get().recordResult(url, result, System.nanoTime() - sentAt);
+        attemptEvent.setStatusCode(result.getStatusCode());
+        attemptEvent.setSuccessful(result.isSuccess());
+        attemptEvent.commit();
+        CircuitBreaker.get().record(url, result);
+        lastStatusCode = result.getStatusCode();
+        if (result.isSuccess()) {
+            complete(DeliveryRecord.Status.DELIVERED);
+            return;
+        }
 
-        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
-                .setDefaultConnectionConfig(connectionConfig)
-                .build();
+        if (result.getFailure() != null) {
+            log("Failed to post data to webhook - %s", Endpoints.mask(url));
+            result.getFailure().printStackTrace(logger);
+        } else {
+            log("Posting data to %s may have failed. Webhook responded with status code - %s", Endpoints.mask(url),
+                    result.getStatusCode());
+            log("Message from webhook - %s", result.getBody());
+        }
 
-        builder.setDefaultRequestConfig(requestConfig);
-        builder.setConnectionManager(connectionManager);
+        if (!retryPolicy.isRetryable(result)) {
+            log("Notification to %s has been rejected, it will not be repeated", Endpoints.mask(url));
+            complete(DeliveryRecord.Status.REJECTED);
+            return;
+        }
+        long delay = retryPolicy.nextDelay(tried, result);
+        long elapsed = System.currentTimeMillis() - createdAt;
+        if (!retryPolicy.canRetry(tried, elapsed, delay)) {
+            log("Giving up notification to %s after %s attempts", Endpoints.mask(url), tried);
+            complete(DeliveryRecord.Status.ABANDONED);
+            return;
+        }
+        DeliveryMetrics.get().recordRetry(url);
+        Timer.get().schedule(this::retry, delay, TimeUnit.MILLISECONDS);
+    }
 
-        return builder.build();
+    private void retry() {
+        queuedAt = System.nanoTime();
+        enqueue();
     }
 
-    private static boolean isNoProxyHost(String host, List<Pattern> noProxyHostPatterns) {
-        if (host != null && noProxyHostPatterns != null) {
-            for (Pattern p : noProxyHostPatterns) {
-                if (p.matcher(host).matches()) {
-                    return true;
-                }
-            }
+    /**
+     * Queues the notification that has waited for the permit or for the breaker.
+     */
+    private void resume() {
+        queuedAt = 0;
+        enqueue();
+    }
+
+    private void enqueue() {
+        try {
+            DeliveryEngine.get().submit(this);
+        } catch (RejectedExecutionException e) {
+            defer();
+        }
+    }
+
+    /**
+     * Queues the notification again when there may be room in the delivery queue. Until then,
+     * and also when the time for the delivery runs out, the notification stays in the outbox.
+     */
+    private void defer() {
+        DeliveryMetrics.get().recordRejected();
+        long elapsed = System.currentTimeMillis() - createdAt;
+        if (DeliveryEngine.get().isStopped() || elapsed + QUEUE_FULL_DELAY_MILLIS > retryPolicy.getMaxElapsedMillis()) {
+            log("Failed to queue notification to %s, it will be sent again after restart", Endpoints.mask(url));
+            complete(DeliveryRecord.Status.DROPPED);
+            return;
         }
-        return false;
+        log("Delivery queue is full, notification to %s will be queued again in %s seconds", Endpoints.mask(url),
+                TimeUnit.MILLISECONDS.toSeconds(QUEUE_FULL_DELAY_MILLIS));
+        Timer.get().schedule(this::retry, QUEUE_FULL_DELAY_MILLIS, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -0,0 +1,91 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.FilePath;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import org.jenkinsci.plugins.tokenmacro.MacroEvaluationException;
+import org.jenkinsci.plugins.tokenmacro.TokenMacro;
+
+/**
+ * Evaluates token macros for the run and remembers the results, so the same template used by many
+ * webhooks, rules and facts is expanded only once. Macros such as <code>BUILD_LOG_REGEX</code>
+ * read the whole build log so the evaluation is expensive.
+ * Single context should be used by all builders that create the same notification.
+ */
+public class MacroEvaluationContext {
+
+    private static final Logger LOGGER = Logger.getLogger(MacroEvaluationContext.class.getName());
+
+    private final Run run;
+    private final TaskListener taskListener;
+
+    private final Map<String, String> evaluated = new HashMap<>();
+    private int hits;
+    private int misses;
+
+    public MacroEvaluationContext(Run run, TaskListener taskListener) {
+        this.run = run;
+        this.taskListener = taskListener;
+    }
+
+    /**
+     * Expands all macros of the template.
+     *
+     * @param template template to evaluate
+     * @return evaluated template
+     * @throws IllegalArgumentException when the template could not be evaluated
+     */
+    public synchronized String evaluate(String template) {
+        String value = evaluated.get(template);
+        if (value != null) {
+            hits++;
+            LOGGER.log(Level.FINE, "Reused evaluation of ''{0}'' for {1}, hits: {2}, misses: {3}",
+                    new Object[]{template, run, hits, misses});
+            return value;
+        }
+
+        value = expand(template);
+        evaluated.put(template, value);
+        misses++;
+        LOGGER.log(Level.FINE, "Evaluated ''{0}'' for {1}, hits: {2}, misses: {3}",
+                new Object[]{template, run, hits, misses});
+        return value;
+    }
+
+    private String expand(String template) {
+        try {
+            File workspace = run.getRootDir();
+            return TokenMacro.expandAll(run, new FilePath(workspace), taskListener, template);
+        } catch (InterruptedException | IOException | MacroEvaluationException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Run;
+import jenkins.model.RunAction2;
+import jenkins.plugins.office365connector.delivery.DeliveryRecord;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+
+/**
+ * Timeline of notifications sent for the build. Every notification is added once its delivery has completed,
+ * so the build is saved once per notification and not on every retry. The action is stored with the build,
+ * therefore only the outcome is kept unless payloads are explicitly requested for debugging.
+ */
+public class NotificationsAction implements RunAction2 {
+
+    private static final Logger LOGGER = Logger.getLogger(NotificationsAction.class.getName());
+
+    /**
+     * Stores payloads of the notifications in the build which is helpful only when debugging the cards.
+     */
+    static final boolean KEEP_PAYLOADS = SystemProperties.getBoolean(NotificationsAction.class.getName() + ".keepPayloads");
+
+    private transient Run run;
+
+    private final List<Notification> notifications = new ArrayList<>();
+
+    /**
+     * Registers short names of the stored classes, so the build files stay small.
+     */
+    @Initializer(before = InitMilestone.JOB_LOADED)
+    public static void registerAliases() {
+        Run.XSTREAM2.alias("office365Notifications", NotificationsAction.class);
+        Run.XSTREAM2.alias("office365Notification", Notification.class);
+    }
+
+    /**
+     * Adds completed notification to the action of the build and saves the build. Saving is done by the timer
+     * so the thread that completes the delivery is not blocked by the disk.
+     *
+     * @param run     build that has been notified about
+     * @param webhook name of the webhook
+     * @param event   event that has been notified about
+     * @param record  outcome of the delivery
+     * @param payload payload of the notification, stored only when payloads are kept
+     */
+    public static void record(Run run, String webhook, String event, DeliveryRecord record, String payload) {
+        Timer.get().submit(() -> store(run, webhook, event, record, payload));
+    }
+
+    static void store(Run run, String webhook, String event, DeliveryRecord record, String payload) {
+        if (run.getParent().getBuildByNumber(run.getNumber()) != run) {
+            // saving would create the directory of the build that has been deleted in the meantime
+            LOGGER.log(Level.FINE, "Build {0} has been deleted, notification is not recorded", run.getFullDisplayName());
+            return;
+        }
+        NotificationsAction action;
+        synchronized (NotificationsAction.class) {
+            action = run.getAction(NotificationsAction.class);
+            if (action == null) {
+                action = new NotificationsAction();
+                run.addAction(action);
+            }
+        }
+        action.add(new Notification(webhook, event, record, KEEP_PAYLOADS ? payload : null));
+        try {
+            run.save();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save notifications of " + run.getFullDisplayName(), e);
+        }
+    }
+
+    synchronized void add(Notification notification) {
+        notifications.add(notification);
+    }
+
+    /**
+     * Returns notifications in the order their deliveries have completed.
+     */
+    public synchronized List<Notification> getNotifications() {
+        return new ArrayList<>(notifications);
+    }
+
+    public Run getRun() {
+        return run;
+    }
+
+    @Override
+    public void onAttached(Run<?, ?> run) {
+        this.run = run;
+    }
+
+    @Override
+    public void onLoad(Run<?, ?> run) {
+        this.run = run;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return "symbol-analytics";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Office 365 notifications";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "office365notifications";
+    }
+
+    /**
+     * Outcome of the single notification.
+     */
+    public static final class Notification {
+
+        private final String webhook;
+        private final String event;
+        private final DeliveryRecord.Status status;
+        private final int statusCode;
+        private final int payloadSize;
+        private final long[] attemptedAt;
+        private final long completedAt;
+        private final String payload;
+
+        Notification(String webhook, String event, DeliveryRecord record, String payload) {
+            this.webhook = webhook;
+            this.event = event;
+            this.status = record.getStatus();
+            this.statusCode = record.getStatusCode();
+            this.payloadSize = record.getPayloadSize();
+            this.attemptedAt = record.getAttemptedAt();
+            this.completedAt = record.getCompletedAt();
+            this.payload = payload;
+        }
+
+        public String getWebhook() {
+            return webhook;
+        }
+
+        public String getEvent() {
+            return event;
+        }
+
+        public DeliveryRecord.Status getStatus() {
+            return status;
+        }
+
+        /**
+         * Returns status code of the last response, <code>0</code> when there was no response.
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public int getPayloadSize() {
+            return payloadSize;
+        }
+
+        /**
+         * Returns when the notification has been sent, one entry for every attempt.
+         */
+        public List<Date> getAttempts() {
+            List<Date> attempts = new ArrayList<>();
+            if (attemptedAt != null) {
+                for (long attempt : attemptedAt) {
+                    attempts.add(new Date(attempt));
+                }
+            }
+            return attempts;
+        }
+
+        public Date getCompleted() {
+            return new Date(completedAt);
+        }
+
+        /**
+         * Returns payload of the notification or <code>null</code> when payloads are not kept.
+         */
+        public String getPayload() {
+            return payload;
+        }
+    }
+}
@@ -16,18 +16,39 @@
 package jenkins.plugins.office365connector;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
-import com.google.gson.FieldNamingPolicy;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import hudson.model.AbstractBuild;
 import hudson.model.Job;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.util.LogTaskListener;
+import jenkins.plugins.office365connector.delivery.DeliveryRecord;
+import jenkins.plugins.office365connector.delivery.DuplicateFilter;
+import jenkins.plugins.office365connector.delivery.NotificationPipeline;
+import jenkins.plugins.office365connector.delivery.Priority;
+import jenkins.plugins.office365connector.delivery.RetryPolicy;
+import jenkins.plugins.office365connector.jfr.CardRenderingEvent;
+import jenkins.plugins.office365connector.jfr.NotificationEvent;
+import jenkins.plugins.office365connector.jfr.SerializationEvent;
 import jenkins.plugins.office365connector.model.Card;
+import jenkins.plugins.office365connector.model.CardFingerprint;
+import jenkins.plugins.office365connector.model.CardWriter;
+import jenkins.plugins.office365connector.model.DigestEntry;
+import jenkins.plugins.office365connector.model.FactDefinition;
 import jenkins.plugins.office365connector.workflow.StepParameters;
 import org.apache.commons.lang3.StringUtils;
 
@@ -36,52 +57,180 @@ import org.apache.commons.lang3.StringUtils;
  */
 public class Office365ConnectorWebhookNotifier {
 
-    private static final Gson gson = new GsonBuilder()
-            .setFieldNamingPolicy(FieldNamingPolicy.IDENTITY)
-            .setPrettyPrinting().create();
+    private static final Logger LOGGER = Logger.getLogger(Office365ConnectorWebhookNotifier.class.getName());
+
+    private static final WebhookRoutes NO_ROUTES = new WebhookRoutes(Collections.emptyList());
+
+    /**
+     * Event recorded for notifications sent by the pipeline step.
+     */
+    static final String EVENT_STEP = "STEP";
 
     private final DecisionMaker decisionMaker;
+    private final MacroEvaluationContext macroContext;
+    private final BuildContext buildContext;
 
     private final Run run;
     private final Job job;
+    private final String jobName;
     private final TaskListener taskListener;
+    private final String logPrefix;
 
     public Office365ConnectorWebhookNotifier(Run run, TaskListener taskListener) {
+        this(run, taskListener, "");
+    }
+
+    private Office365ConnectorWebhookNotifier(Run run, TaskListener taskListener, String logPrefix) {
         this.run = run;
         this.taskListener = taskListener;
-        this.decisionMaker = new DecisionMaker(run, taskListener);
+        this.logPrefix = logPrefix;
+        this.macroContext = new MacroEvaluationContext(run, taskListener);
+        this.buildContext = new BuildContext(run);
+        this.decisionMaker = new DecisionMaker(run, taskListener, macroContext, buildContext);
         this.job = run.getParent();
+        this.jobName = NotificationEvent.jobName(run);
     }
 
     public void sendBuildStartedNotification(boolean isFromPreBuild) {
         boolean isBuild = run instanceof AbstractBuild;
         if (isBuild == isFromPreBuild) {
 
-            List<Webhook> webhooks = extractWebhooks(job);
+            List<Webhook> webhooks = extractRoutes(job).route(EnumSet.of(WebhookRoutes.Event.STARTED));
+            Map<RenderingKey, String> payloads = new HashMap<>();
             for (Webhook webhook : webhooks) {
                 if (decisionMaker.isAtLeastOneRuleMatched(webhook)) {
-                    if (webhook.isStartNotification()) {
-                        CardBuilder cardBuilder = new CardBuilder(run, taskListener, webhook.isAdaptiveCards());
+                    String data = payloads.computeIfAbsent(RenderingKey.of(webhook), key -> {
+                        CardRenderingEvent event = new CardRenderingEvent(jobName, webhook.getName(), WebhookRoutes.Event.STARTED.name());
+                        event.begin();
+                        CardBuilder cardBuilder = new CardBuilder(run, macroContext, buildContext, webhook.isAdaptiveCards());
                         Card card = cardBuilder.createStartedCard(webhook.getFactDefinitions());
-                        executeWorker(webhook, card);
-                    }
+                        event.commit();
+                        return toJson(webhook, card);
+                    });
+                    executeWorker(webhook, data, WebhookRoutes.Event.STARTED.name(), Priority.LOW, null);
                 }
             }
         }
     }
 
     public void sendBuildCompletedNotification() {
-        List<Webhook> webhooks = extractWebhooks(job);
+        deliver(serialize(render(evaluate(route(extractRoutes(job))))));
+    }
+
+    /**
+     * Sends the notification about completed build through {@link NotificationPipeline}, so the caller
+     * only takes the snapshot of the build and does not wait for the notification to be prepared.
+     */
+    public void submitBuildCompletedNotification() {
+        if (extractWebhooks(job).isEmpty()) {
+            return;
+        }
+        if (!NotificationPipeline.isEnabled()) {
+            sendBuildCompletedNotification();
+            return;
+        }
+        // the build log is closed once the caller returns, so the stages log through java.util.logging
+        Office365ConnectorWebhookNotifier background = new Office365ConnectorWebhookNotifier(run,
+                new LogTaskListener(LOGGER, Level.INFO), run.getFullDisplayName() + ": ");
+        WebhookRoutes routes = extractRoutes(job);
+        boolean submitted = NotificationPipeline.get().submit(() -> {
+            background.buildContext.snapshot();
+            List<Webhook> webhooks = background.route(routes);
+            if (webhooks.isEmpty()) {
+                return null;
+            }
+            // snapshot is taken by the calling thread so the build log is still open
+            log(String.format("Notification to webhooks %s is prepared in the background, see the Jenkins log for details",
+                    webhooks.stream().map(Webhook::getName).collect(Collectors.joining(", "))));
+            return webhooks;
+        }, background::evaluate, background::render, background::serialize, background::deliver);
+        if (!submitted) {
+            // not lost but prepared the same way as when the pipeline is disabled
+            log("Too many notifications are waiting, notification is prepared by the build");
+            sendBuildCompletedNotification();
+        }
+    }
+
+    /**
+     * Finds webhooks that are interested in the completed build without evaluating any macro.
+     */
+    private List<Webhook> route(WebhookRoutes routes) {
+        return routes.route(decisionMaker.getCompletedEvents());
+    }
+
+    private List<Webhook> evaluate(List<Webhook> webhooks) {
+        List<Webhook> matched = new ArrayList<>();
+        for (Webhook webhook : webhooks) {
+            // status is checked first as macros might be expensive to evaluate
+            if (decisionMaker.isStatusMatched(webhook)) {
+                if (decisionMaker.isAtLeastOneRuleMatched(webhook)) {
+                    matched.add(webhook);
+                }
+            }
+        }
+        return matched;
+    }
 
+    private List<Payload> render(List<Webhook> webhooks) {
+        // webhooks that expect the same card share the payload so the card is built and serialized once
+        Map<RenderingKey, Card> cards = new HashMap<>();
+        DigestEntry digestEntry = null;
+        List<Payload> payloads = new ArrayList<>();
+        String events = completedEvent();
         for (Webhook webhook : webhooks) {
-            if (decisionMaker.isAtLeastOneRuleMatched(webhook)) {
-                if (decisionMaker.isStatusMatched(webhook)) {
-                    CardBuilder cardBuilder = new CardBuilder(run, taskListener, webhook.isAdaptiveCards());
-                    Card card = cardBuilder.createCompletedCard(webhook.getFactDefinitions());
-                    executeWorker(webhook, card);
+            if (webhook.isDigest()) {
+                if (digestEntry == null) {
+                    digestEntry = new CardBuilder(run, macroContext, buildContext, webhook.isAdaptiveCards()).createDigestEntry();
                 }
+                payloads.add(new Payload(webhook, null, null, digestEntry));
+            } else {
+                RenderingKey key = RenderingKey.of(webhook);
+                Card card = cards.computeIfAbsent(key, k -> {
+                    CardRenderingEvent event = new CardRenderingEvent(jobName, webhook.getName(), events);
+                    event.begin();
+                    CardBuilder cardBuilder = new CardBuilder(run, macroContext, buildContext, webhook.isAdaptiveCards());
+                    Card completedCard = cardBuilder.createCompletedCard(webhook.getFactDefinitions());
+                    event.commit();
+                    return completedCard;
+                });
+                payloads.add(new Payload(webhook, key, card, null));
             }
         }
+        return payloads;
+    }
+
+    private List<Payload> serialize(List<Payload> payloads) {
+        Map<RenderingKey, String> serialized = new HashMap<>();
+        for (Payload payload : payloads) {
+            if (payload.card != null) {
+                payload.data = serialized.computeIfAbsent(payload.key, key -> toJson(payload.webhook, payload.card));
+            }
+        }
+        return payloads;
+    }
+
+    private void deliver(List<Payload> payloads) {
+        Map<Card, String> hashes = new IdentityHashMap<>();
+        String event = completedEvent();
+        // failures and builds back to normal are delivered first when the delivery queue is busy
+        Priority priority = Priority.of(decisionMaker.getCompletedEvents());
+        for (Payload payload : payloads) {
+            if (payload.digestEntry != null) {
+                addToDigest(payload.webhook, payload.digestEntry);
+            } else {
+                // build number and links to the build are different for every build even if the card is the same
+                String hash = payload.webhook.getDedupWindow() > 0
+                        ? hashes.computeIfAbsent(payload.card, card -> DuplicateFilter.hash(CardFingerprint.of(card)))
+                        : null;
+                executeWorker(payload.webhook, payload.data, event, priority, hash);
+            }
+        }
+    }
+
+    private String completedEvent() {
+        return decisionMaker.getCompletedEvents().stream()
+                .map(Enum::name)
+                .collect(Collectors.joining(", "));
     }
 
     private static List<Webhook> extractWebhooks(Job job) {
@@ -92,10 +241,18 @@ public class Office365ConnectorWebhookNotifier {
         return Collections.emptyList();
     }
 
+    private static WebhookRoutes extractRoutes(Job job) {
+        WebhookJobProperty property = (WebhookJobProperty) job.getProperty(WebhookJobProperty.class);
+        if (property != null && property.getWebhooks() != null) {
+            return property.getRoutes();
+        }
+        return NO_ROUTES;
+    }
+
     public void sendBuildStepNotification(StepParameters stepParameters) {
         Webhook webhook = new Webhook(stepParameters.getWebhookUrl());
 
-        CardBuilder cardBuilder = new CardBuilder(run, taskListener, stepParameters.isAdaptiveCards());
+        CardBuilder cardBuilder = new CardBuilder(run, macroContext, buildContext, stepParameters.isAdaptiveCards());
         Card card;
         // TODO: improve this logic as the user may send any 'status' via pipeline step
         if (StringUtils.isNotBlank(stepParameters.getMessage())) {
@@ -106,25 +263,136 @@ public class Office365ConnectorWebhookNotifier {
             card = cardBuilder.createCompletedCard(stepParameters.getFactDefinitions());
         }
 
-        executeWorker(webhook, card);
+        executeWorker(webhook, toJson(webhook, card), EVENT_STEP, Priority.NORMAL, null);
     }
 
-    private void executeWorker(Webhook webhook, Card card) {
+    private void addToDigest(Webhook webhook, DigestEntry entry) {
         try {
             String url = run.getEnvironment(taskListener).expand(webhook.getUrl());
-            String data = gson.toJson(card == null ? null : card.toPaylod());
-            HttpWorker worker = new HttpWorker(url, data, webhook.getTimeout(), taskListener.getLogger());
-            worker.submit();
+            DigestBuffer.get().add(url, webhook, entry);
+            log(String.format("Notification to webhook %s will be sent in the digest", webhook.getName()));
         } catch (IOException | InterruptedException | RejectedExecutionException e) {
             log(String.format("Failed to notify webhook: %s", webhook.getName()));
             e.printStackTrace(taskListener.getLogger());
         }
     }
 
+    /**
+     * Serializes the card into the payload expected by the webhook.
+     */
+    static String toJson(Card card) {
+        return CardWriter.toJson(card);
+    }
+
+    private String toJson(Webhook webhook, Card card) {
+        SerializationEvent event = new SerializationEvent(jobName, webhook.getName());
+        event.begin();
+        String data = toJson(card);
+        event.end();
+        if (event.shouldCommit()) {
+            // encoded only when the event is recorded
+            event.setBytes(data.getBytes(StandardCharsets.UTF_8).length);
+            event.commit();
+        }
+        return data;
+    }
+
+    /**
+     * Sends the notification to the webhook.
+     *
+     * @param hash hash of the card when the same card should not be sent again within the duplicate window,
+     *             <code>null</code> otherwise
+     */
+    private void executeWorker(Webhook webhook, String data, String event, Priority priority, String hash) {
+        try {
+            String url = run.getEnvironment(taskListener).expand(webhook.getUrl());
+            String target = jobName + " " + url;
+            if (hash != null && DuplicateFilter.get().isDuplicate(target, hash,
+                    TimeUnit.SECONDS.toMillis(webhook.getDedupWindow()))) {
+                log(String.format("Notification to webhook %s is skipped, the same card has been sent recently",
+                        webhook.getName()));
+                return;
+            }
+            RetryPolicy retryPolicy = new RetryPolicy(webhook.getMaxAttempts(),
+                    TimeUnit.SECONDS.toMillis(webhook.getMaxElapsedTime()));
+            HttpWorker worker = new HttpWorker(url, data, webhook.getTimeout(), retryPolicy, taskListener.getLogger(),
+                    job == null ? null : job.getFullName(), run.getNumber());
+            worker.setPriority(priority);
+            worker.setCompletionListener(record -> {
+                // remembered only once delivered, so the card that has not been delivered can be sent again
+                if (hash != null && record.getStatus() == DeliveryRecord.Status.DELIVERED) {
+                    DuplicateFilter.get().markSent(target, hash);
+                }
+                NotificationsAction.record(run, webhook.getName(), event, record, data);
+            });
+            worker.submit();
+        } catch (IOException | InterruptedException e) {
+            log(String.format("Failed to notify webhook: %s", webhook.getName()));
+            e.printStackTrace(taskListener.getLogger());
+        }
+    }
+
+    /**
+     * Notification prepared for the single webhook, either the card or the entry of the digest.
+     */
+    private static final class Payload {
+
+        private final Webhook webhook;
+        private final RenderingKey key;
+        private final Card card;
+        private final DigestEntry digestEntry;
+        private String data;
+
+        private Payload(Webhook webhook, RenderingKey key, Card card, DigestEntry digestEntry) {
+            this.webhook = webhook;
+            this.key = key;
+            this.card = card;
+            this.digestEntry = digestEntry;
+        }
+    }
+
+    /**
+     * Identifies webhooks that receive exactly the same card for the build.
+     */
+    private static final class RenderingKey {
+
+        private final boolean adaptiveCards;
+        private final List<String> factDefinitions = new ArrayList<>();
+
+        private RenderingKey(Webhook webhook) {
+            adaptiveCards = webhook.isAdaptiveCards();
+            for (FactDefinition factDefinition : webhook.getFactDefinitions()) {
+                factDefinitions.add(factDefinition.getName());
+                factDefinitions.add(factDefinition.getTemplate());
+            }
+        }
+
+        static RenderingKey of(Webhook webhook) {
+            return new RenderingKey(webhook);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RenderingKey)) {
+                return false;
+            }
+            RenderingKey that = (RenderingKey) o;
+            return adaptiveCards == that.adaptiveCards && factDefinitions.equals(that.factDefinitions);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(adaptiveCards, factDefinitions);
+        }
+    }
+
     /**
      * Helper method for logging.
      */
     private void log(String message) {
-        taskListener.getLogger().println("[Office365connector] " + message);
+        taskListener.getLogger().println("[Office365connector] " + logPrefix + message);
     }
 }
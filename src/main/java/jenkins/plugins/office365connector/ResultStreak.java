@@ -0,0 +1,367 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Action;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.listeners.ItemListener;
+import jenkins.model.TransientActionFactory;
+
+/**
+ * Summary of the recent results of the job that is updated when the build completes, so the decisions
+ * such as back to normal or repeated failure do not need to load the previous builds from the disk.
+ * The summary is stored next to the job configuration and is available as the job action.
+ */
+public class ResultStreak implements Action {
+
+    private static final Logger LOGGER = Logger.getLogger(ResultStreak.class.getName());
+
+    static final String FILE_NAME = "office365connector-streak.xml";
+
+    /**
+     * Limits the number of builds loaded when the summary is created for the first time.
+     */
+    private static final int MAX_BUILDS_TO_LOAD = 100;
+
+    /**
+     * Summaries by the full name of the job, removed when the job is deleted or renamed.
+     */
+    private static final Map<String, ResultStreak> STREAKS = new HashMap<>();
+
+    /**
+     * Remembers the jobs without the summary, so the file is not looked up whenever the job page is rendered.
+     */
+    private static final ResultStreak MISSING = new ResultStreak();
+
+    private transient Job job;
+
+    private int lastBuildNumber;
+    private Result lastResult;
+    private Result lastNotAbortedResult;
+    private int failingSince;
+    private int streakLength;
+
+    ResultStreak() {
+    }
+
+    /**
+     * Returns the summary of builds completed before the run or <code>null</code> when the summary is not available,
+     * for instance because the builds have completed in different order than they were started or the summary
+     * has missed some builds, as they were completed when the job had no webhooks or have been deleted.
+     */
+    public static ResultStreak forRun(Run run) {
+        Job job = run.getParent();
+        if (job == null) {
+            return null;
+        }
+        ResultStreak streak = get(job);
+        if (streak == null) {
+            return null;
+        }
+        int previousNumber = previousCompletedNumber(run);
+        synchronized (streak) {
+            return streak.endsWith(previousNumber) ? streak.copy() : null;
+        }
+    }
+
+    /**
+     * Includes completed run in the summary of its job.
+     */
+    public static void update(Run run) {
+        Job job = run.getParent();
+        if (job == null || job.getRootDir() == null) {
+            return;
+        }
+        ResultStreak streak = get(job);
+        boolean created = false;
+        if (streak == null) {
+            // history is loaded without holding the lock so other jobs are not blocked by the disk
+            ResultStreak history = fromHistory(run);
+            history.job = job;
+            synchronized (STREAKS) {
+                streak = STREAKS.get(job.getFullName());
+                if (streak == null || streak == MISSING) {
+                    streak = history;
+                    STREAKS.put(job.getFullName(), streak);
+                    created = true;
+                }
+            }
+        }
+        int previousNumber = created ? 0 : previousCompletedNumber(run);
+        synchronized (streak) {
+            if (run.getNumber() <= streak.lastBuildNumber) {
+                // older build has completed after the newer one
+                return;
+            }
+            if (!created && !streak.endsWith(previousNumber)) {
+                // some builds are missing in the summary so it is not reliable anymore
+                streak.restore(fromHistory(run));
+            }
+            streak.add(run.getNumber(), run.getResult());
+            streak.save();
+        }
+    }
+
+    private static int previousCompletedNumber(Run run) {
+        Run previous = run.getPreviousCompletedBuild();
+        return previous == null ? 0 : previous.getNumber();
+    }
+
+    /**
+     * Checks if the last build of the summary is the given one, so no build is missing in the summary.
+     *
+     * @param previousNumber number of the build completed before the notified one, <code>0</code> when there is none
+     */
+    boolean endsWith(int previousNumber) {
+        return lastBuildNumber == previousNumber;
+    }
+
+    private static ResultStreak get(Job job) {
+        String fullName = job.getFullName();
+        synchronized (STREAKS) {
+            ResultStreak streak = STREAKS.get(fullName);
+            if (streak != null) {
+                return streak == MISSING ? null : streak;
+            }
+        }
+        ResultStreak loaded = load(job);
+        synchronized (STREAKS) {
+            // the summary may have been loaded or created by the other thread in the meantime
+            ResultStreak streak = STREAKS.putIfAbsent(fullName, loaded == null ? MISSING : loaded);
+            if (streak == null) {
+                streak = loaded;
+            }
+            return streak == MISSING ? null : streak;
+        }
+    }
+
+    /**
+     * Forgets summaries of the item and the jobs inside of it.
+     */
+    static void forget(String fullName) {
+        synchronized (STREAKS) {
+            STREAKS.keySet().removeIf(name -> name.equals(fullName) || name.startsWith(fullName + "/"));
+        }
+    }
+
+    private static ResultStreak load(Job job) {
+        File rootDir = job.getRootDir();
+        if (rootDir == null) {
+            return null;
+        }
+        XmlFile file = new XmlFile(new File(rootDir, FILE_NAME));
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            ResultStreak streak = (ResultStreak) file.read();
+            streak.job = job;
+            return streak;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to load " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Creates the summary of builds that have completed before the run.
+     */
+    static ResultStreak fromHistory(Run run) {
+        ResultStreak streak = new ResultStreak();
+        // build that is still running is added to the summary once it completes
+        Run previousBuild = run.getPreviousCompletedBuild();
+        if (previousBuild == null) {
+            return streak;
+        }
+        streak.lastBuildNumber = previousBuild.getNumber();
+        streak.lastResult = previousBuild.getResult();
+
+        Run notAborted = previousBuild;
+        while (notAborted != null && notAborted.getResult() == Result.ABORTED) {
+            notAborted = notAborted.getPreviousCompletedBuild();
+        }
+        if (notAborted != null) {
+            streak.lastNotAbortedResult = notAborted.getResult();
+            int loaded = 0;
+            for (Run build = notAborted; build != null && loaded < MAX_BUILDS_TO_LOAD; build = build.getPreviousCompletedBuild(), loaded++) {
+                if (build.getResult() == Result.ABORTED) {
+                    continue;
+                }
+                if (build.getResult() != streak.lastNotAbortedResult) {
+                    break;
+                }
+                streak.streakLength++;
+            }
+        }
+
+        if (streak.lastResult == Result.FAILURE) {
+            Run lastNotFailedBuild = run.getPreviousNotFailedBuild();
+            Run failingSinceBuild = lastNotFailedBuild != null
+                    ? lastNotFailedBuild.getNextBuild() : run.getParent().getFirstBuild();
+            streak.failingSince = failingSinceBuild != null ? failingSinceBuild.getNumber() : 0;
+        }
+        return streak;
+    }
+
+    void add(int buildNumber, Result result) {
+        lastBuildNumber = buildNumber;
+        lastResult = result;
+
+        // the same way as Run.getPreviousNotFailedBuild() aborted build breaks the failure streak
+        if (result == Result.FAILURE) {
+            if (failingSince == 0) {
+                failingSince = buildNumber;
+            }
+        } else {
+            failingSince = 0;
+        }
+
+        if (result != Result.ABORTED) {
+            if (result == lastNotAbortedResult) {
+                streakLength++;
+            } else {
+                lastNotAbortedResult = result;
+                streakLength = 1;
+            }
+        }
+    }
+
+    private void save() {
+        try {
+            new XmlFile(new File(job.getRootDir(), FILE_NAME)).write(this);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save result streak of " + job.getFullName(), e);
+        }
+    }
+
+    private void restore(ResultStreak other) {
+        lastBuildNumber = other.lastBuildNumber;
+        lastResult = other.lastResult;
+        lastNotAbortedResult = other.lastNotAbortedResult;
+        failingSince = other.failingSince;
+        streakLength = other.streakLength;
+    }
+
+    private ResultStreak copy() {
+        ResultStreak copy = new ResultStreak();
+        copy.job = job;
+        copy.lastBuildNumber = lastBuildNumber;
+        copy.lastResult = lastResult;
+        copy.lastNotAbortedResult = lastNotAbortedResult;
+        copy.failingSince = failingSince;
+        copy.streakLength = streakLength;
+        return copy;
+    }
+
+    /**
+     * Returns number of the last completed build or <code>0</code> when no build has completed.
+     */
+    public int getLastBuildNumber() {
+        return lastBuildNumber;
+    }
+
+    /**
+     * Returns result of the last completed build, <code>null</code> when no build has completed.
+     */
+    public Result getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Returns result of the last completed build that has not been aborted.
+     */
+    public Result getLastNotAbortedResult() {
+        return lastNotAbortedResult;
+    }
+
+    /**
+     * Returns number of the first build of the current failure streak or <code>0</code> when the last build has not failed.
+     */
+    public int getFailingSince() {
+        return failingSince;
+    }
+
+    /**
+     * Returns number of consecutive not aborted builds that have the same result as the last one.
+     */
+    public int getStreakLength() {
+        return streakLength;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return null;
+    }
+
+    /**
+     * Makes the summary available as the action of the job.
+     */
+    @Extension
+    public static class ActionFactory extends TransientActionFactory<Job> {
+
+        @Override
+        public Class<Job> type() {
+            return Job.class;
+        }
+
+        @NonNull
+        @Override
+        public Collection<? extends Action> createFor(@NonNull Job target) {
+            ResultStreak streak = get(target);
+            return streak == null ? Collections.emptyList() : Collections.singleton(streak);
+        }
+    }
+
+    /**
+     * Releases summaries of the jobs that are deleted or moved, the summary of moved job is loaded again when needed.
+     */
+    @Extension
+    public static class JobListener extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            forget(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            forget(oldFullName);
+        }
+    }
+}
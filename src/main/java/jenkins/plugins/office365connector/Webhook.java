@@ -23,6 +23,10 @@ import hudson.Util;
 import hudson.model.AbstractDescribableImpl;
 import hudson.model.Descriptor;
 import hudson.util.FormValidation;
+import jenkins.model.Jenkins;
+import jenkins.plugins.office365connector.delivery.DeliveryEngine;
+import jenkins.plugins.office365connector.delivery.RateLimiter;
+import jenkins.plugins.office365connector.model.CardSizeLimiter;
 import jenkins.plugins.office365connector.model.FactDefinition;
 import jenkins.plugins.office365connector.model.Macro;
 import jenkins.plugins.office365connector.utils.FormUtils;
@@ -36,6 +40,9 @@ import org.kohsuke.stapler.StaplerRequest2;
 public class Webhook extends AbstractDescribableImpl<Webhook> {
 
     public static final Integer DEFAULT_TIMEOUT = 30000;
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final int DEFAULT_MAX_ELAPSED_TIME = 300;
+    public static final int DEFAULT_DIGEST_SIZE = 50;
 
     private String name;
     private String url;
@@ -51,6 +58,14 @@ public class Webhook extends AbstractDescribableImpl<Webhook> {
 
     private int timeout;
 
+    private int maxAttempts;
+    private int maxElapsedTime;
+
+    private int digestInterval;
+    private int digestSize;
+
+    private int dedupWindow;
+
     private boolean adaptiveCards;
 
     private List<Macro> macros = Collections.emptyList();
@@ -161,6 +176,69 @@ public class Webhook extends AbstractDescribableImpl<Webhook> {
         this.timeout = timeout;
     }
 
+    public int getMaxAttempts() {
+        return maxAttempts <= 0 ? DEFAULT_MAX_ATTEMPTS : maxAttempts;
+    }
+
+    @DataBoundSetter
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Returns time (in seconds) after which failed notification is not repeated anymore.
+     */
+    public int getMaxElapsedTime() {
+        return maxElapsedTime <= 0 ? DEFAULT_MAX_ELAPSED_TIME : maxElapsedTime;
+    }
+
+    @DataBoundSetter
+    public void setMaxElapsedTime(int maxElapsedTime) {
+        this.maxElapsedTime = maxElapsedTime;
+    }
+
+    /**
+     * Returns time (in seconds) after which the digest of completed builds is sent,
+     * <code>0</code> when every build is notified separately.
+     */
+    public int getDigestInterval() {
+        return Math.max(0, digestInterval);
+    }
+
+    @DataBoundSetter
+    public void setDigestInterval(int digestInterval) {
+        this.digestInterval = digestInterval;
+    }
+
+    public boolean isDigest() {
+        return getDigestInterval() > 0;
+    }
+
+    /**
+     * Returns number of completed builds after which the digest is sent without waiting for the interval.
+     */
+    public int getDigestSize() {
+        return digestSize <= 0 ? DEFAULT_DIGEST_SIZE : digestSize;
+    }
+
+    @DataBoundSetter
+    public void setDigestSize(int digestSize) {
+        this.digestSize = digestSize;
+    }
+
+    /**
+     * Returns time (in seconds) within which the notification with the same content is not sent again
+     * to the webhook of the same job, <code>0</code> when every notification is sent.
+     */
+    public int getDedupWindow() {
+        return Math.max(0, dedupWindow);
+    }
+
+    @DataBoundSetter
+    public void setDedupWindow(int dedupWindow) {
+        this.dedupWindow = dedupWindow;
+    }
+
     public List<Macro> getMacros() {
         return Util.fixNull(macros);
     }
@@ -195,10 +273,26 @@ public class Webhook extends AbstractDescribableImpl<Webhook> {
         private String globalUrl;
         private String globalName;
 
+        private int deliveryThreads;
+        private int deliveryQueueSize;
+        private boolean asyncTransport;
+        private Double rateLimit;
+        private int rateLimitBurst;
+        private int maxDevelopers;
+        private int maxPayloadSize;
+
         public DescriptorImpl() {
             load();
         }
 
+        /**
+         * Returns global configuration or <code>null</code> when Jenkins is not available.
+         */
+        public static DescriptorImpl getGlobal() {
+            Jenkins jenkins = Jenkins.getInstanceOrNull();
+            return jenkins == null ? null : jenkins.getDescriptorByType(DescriptorImpl.class);
+        }
+
         @NonNull
         @Override
         public String getDisplayName() {
@@ -209,6 +303,26 @@ public class Webhook extends AbstractDescribableImpl<Webhook> {
             return Webhook.DEFAULT_TIMEOUT;
         }
 
+        public int getDefaultMaxAttempts() {
+            return Webhook.DEFAULT_MAX_ATTEMPTS;
+        }
+
+        public int getDefaultMaxElapsedTime() {
+            return Webhook.DEFAULT_MAX_ELAPSED_TIME;
+        }
+
+        public int getDefaultDigestSize() {
+            return Webhook.DEFAULT_DIGEST_SIZE;
+        }
+
+        public FormValidation doCheckDigestInterval(@QueryParameter int value) {
+            return value >= 0 ? FormValidation.ok() : FormValidation.error("Digest interval must not be negative");
+        }
+
+        public FormValidation doCheckDedupWindow(@QueryParameter int value) {
+            return value >= 0 ? FormValidation.ok() : FormValidation.error("Duplicate window must not be negative");
+        }
+
         public FormValidation doCheckUrl(@QueryParameter String value) {
             return FormUtils.formValidateUrl(value);
         }
@@ -257,10 +371,107 @@ public class Webhook extends AbstractDescribableImpl<Webhook> {
             this.globalName = name;
         }
 
+        public int getDeliveryThreads() {
+            return deliveryThreads <= 0 ? DeliveryEngine.DEFAULT_THREADS : deliveryThreads;
+        }
+
+        @DataBoundSetter
+        public void setDeliveryThreads(int deliveryThreads) {
+            this.deliveryThreads = deliveryThreads;
+        }
+
+        public int getDeliveryQueueSize() {
+            return deliveryQueueSize <= 0 ? DeliveryEngine.DEFAULT_QUEUE_SIZE : deliveryQueueSize;
+        }
+
+        @DataBoundSetter
+        public void setDeliveryQueueSize(int deliveryQueueSize) {
+            this.deliveryQueueSize = deliveryQueueSize;
+        }
+
+        public boolean isAsyncTransport() {
+            return asyncTransport;
+        }
+
+        @DataBoundSetter
+        public void setAsyncTransport(boolean asyncTransport) {
+            this.asyncTransport = asyncTransport;
+        }
+
+        /**
+         * Returns number of requests per second sent to the same webhook, <code>0</code> means no limit.
+         */
+        public double getRateLimit() {
+            return rateLimit == null || rateLimit < 0 ? RateLimiter.DEFAULT_PERMITS_PER_SECOND : rateLimit;
+        }
+
+        @DataBoundSetter
+        public void setRateLimit(double rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public int getRateLimitBurst() {
+            return rateLimitBurst <= 0 ? RateLimiter.DEFAULT_BURST : rateLimitBurst;
+        }
+
+        @DataBoundSetter
+        public void setRateLimitBurst(int rateLimitBurst) {
+            this.rateLimitBurst = rateLimitBurst;
+        }
+
+        /**
+         * Returns number of the most active developers that are presented in the notification.
+         */
+        public int getMaxDevelopers() {
+            return maxDevelopers <= 0 ? DeveloperAggregator.DEFAULT_LIMIT : maxDevelopers;
+        }
+
+        @DataBoundSetter
+        public void setMaxDevelopers(int maxDevelopers) {
+            this.maxDevelopers = maxDevelopers;
+        }
+
+        /**
+         * Returns size (in bytes) of the payload above which content of the card is reduced.
+         */
+        public int getMaxPayloadSize() {
+            return maxPayloadSize <= 0 ? CardSizeLimiter.DEFAULT_MAX_SIZE : maxPayloadSize;
+        }
+
+        @DataBoundSetter
+        public void setMaxPayloadSize(int maxPayloadSize) {
+            this.maxPayloadSize = maxPayloadSize;
+        }
+
+        public FormValidation doCheckDeliveryThreads(@QueryParameter int value) {
+            return value > 0 ? FormValidation.ok() : FormValidation.error("Number of threads must be positive");
+        }
+
+        public FormValidation doCheckDeliveryQueueSize(@QueryParameter int value) {
+            return value > 0 ? FormValidation.ok() : FormValidation.error("Queue size must be positive");
+        }
+
+        public FormValidation doCheckMaxDevelopers(@QueryParameter int value) {
+            return value > 0 ? FormValidation.ok() : FormValidation.error("Number of developers must be positive");
+        }
+
+        public FormValidation doCheckMaxPayloadSize(@QueryParameter int value) {
+            return value > 0 ? FormValidation.ok() : FormValidation.error("Payload size must be positive");
+        }
+
+        public FormValidation doCheckRateLimit(@QueryParameter double value) {
+            return value >= 0 ? FormValidation.ok() : FormValidation.error("Rate limit must not be negative");
+        }
+
+        public FormValidation doCheckRateLimitBurst(@QueryParameter int value) {
+            return value > 0 ? FormValidation.ok() : FormValidation.error("Burst size must be positive");
+        }
+
         @Override
         public boolean configure(StaplerRequest2 req, JSONObject formData) {
             req.bindJSON(this, formData);
             save();
+            DeliveryEngine.get().configure(getDeliveryThreads(), getDeliveryQueueSize());
             return true;
         }
     }
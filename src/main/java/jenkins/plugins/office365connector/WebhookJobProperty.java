@@ -14,6 +14,7 @@
 package jenkins.plugins.office365connector;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import hudson.model.AbstractBuild;
@@ -29,15 +30,33 @@ public class WebhookJobProperty extends JobProperty<AbstractProject<?, ?>> {
 
     private final List<Webhook> webhooks;
 
+    private transient WebhookRoutes routes;
+
     @DataBoundConstructor
     public WebhookJobProperty(List<Webhook> webhooks) {
         this.webhooks = new ArrayList<>(webhooks);
+        this.routes = new WebhookRoutes(this.webhooks);
+    }
+
+    protected Object readResolve() {
+        routes = new WebhookRoutes(webhooks != null ? webhooks : Collections.emptyList());
+        return this;
     }
 
     public List<Webhook> getWebhooks() {
         return webhooks;
     }
 
+    /**
+     * Returns webhooks indexed by the events they are notified about.
+     */
+    public WebhookRoutes getRoutes() {
+        if (routes == null) {
+            routes = new WebhookRoutes(webhooks != null ? webhooks : Collections.emptyList());
+        }
+        return routes;
+    }
+
     @Override
     public boolean prebuild(AbstractBuild<?, ?> run, BuildListener listener) {
         Office365ConnectorWebhookNotifier notifier = new Office365ConnectorWebhookNotifier(run, listener);
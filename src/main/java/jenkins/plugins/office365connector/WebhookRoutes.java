@@ -0,0 +1,89 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index of the webhooks by the events they are notified about, built once when the job
+ * configuration is saved or loaded. Dispatching the notification is then a lookup instead of checking
+ * every webhook, so the macros are evaluated only for webhooks that are interested in the event.
+ */
+public class WebhookRoutes {
+
+    /**
+     * Events that the webhook can be notified about.
+     */
+    public enum Event {
+        STARTED, SUCCESS, BACK_TO_NORMAL, FAILURE, REPEATED_FAILURE, UNSTABLE, ABORTED, NOT_BUILT
+    }
+
+    private final Webhook[] webhooks;
+    private final Map<Event, BitSet> routes = new EnumMap<>(Event.class);
+
+    public WebhookRoutes(List<Webhook> webhooks) {
+        this.webhooks = webhooks.toArray(new Webhook[0]);
+        for (Event event : Event.values()) {
+            routes.put(event, new BitSet(this.webhooks.length));
+        }
+        for (int i = 0; i < this.webhooks.length; i++) {
+            Webhook webhook = this.webhooks[i];
+            route(Event.STARTED, webhook.isStartNotification(), i);
+            route(Event.SUCCESS, webhook.isNotifySuccess(), i);
+            route(Event.BACK_TO_NORMAL, webhook.isNotifyBackToNormal(), i);
+            route(Event.FAILURE, webhook.isNotifyFailure(), i);
+            route(Event.REPEATED_FAILURE, webhook.isNotifyRepeatedFailure(), i);
+            route(Event.UNSTABLE, webhook.isNotifyUnstable(), i);
+            route(Event.ABORTED, webhook.isNotifyAborted(), i);
+            route(Event.NOT_BUILT, webhook.isNotifyNotBuilt(), i);
+        }
+    }
+
+    private void route(Event event, boolean enabled, int index) {
+        if (enabled) {
+            routes.get(event).set(index);
+        }
+    }
+
+    /**
+     * Returns webhooks that should be notified about at least one of the events, in the configured order.
+     */
+    public List<Webhook> route(Set<Event> events) {
+        if (events.size() == 1) {
+            return collect(routes.get(events.iterator().next()));
+        }
+        BitSet matched = new BitSet(webhooks.length);
+        for (Event event : events) {
+            matched.or(routes.get(event));
+        }
+        return collect(matched);
+    }
+
+    private List<Webhook> collect(BitSet matched) {
+        if (matched.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Webhook> routed = new ArrayList<>(matched.cardinality());
+        for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+            routed.add(webhooks[i]);
+        }
+        return routed;
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+
+/**
+ * Non-blocking transport that multiplexes requests over few I/O reactor threads.
+ * Uses HTTP/2 when the webhook negotiates it.
+ */
+public class AsyncTransport implements DeliveryTransport {
+
+    @Override
+    public void send(String url, byte[] data, int timeout, Consumer<DeliveryResult> callback) {
+        try {
+            CloseableHttpAsyncClient client = HttpClientRegistry.get().getAsyncClient(url, timeout);
+            SimpleHttpRequest request = SimpleRequestBuilder.post(url)
+                    .setBody(data, ContentType.APPLICATION_JSON)
+                    .build();
+
+            client.execute(request, new FutureCallback<>() {
+                @Override
+                public void completed(SimpleHttpResponse response) {
+                    int code = response.getCode();
+                    if (code < HttpStatus.SC_BAD_REQUEST) {
+                        callback.accept(DeliveryResult.response(code, null));
+                        return;
+                    }
+                    Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+                    callback.accept(DeliveryResult.response(code, response.getBodyText(),
+                            RetryPolicy.parseRetryAfter(retryAfter == null ? null : retryAfter.getValue())));
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    callback.accept(DeliveryResult.failure(e));
+                }
+
+                @Override
+                public void cancelled() {
+                    callback.accept(DeliveryResult.failure(new CancellationException("Request has been cancelled")));
+                }
+            });
+        } catch (RuntimeException e) {
+            // malformed URL or the client closed in the meantime must be reported like any other failure
+            callback.accept(DeliveryResult.failure(e));
+        }
+    }
+}
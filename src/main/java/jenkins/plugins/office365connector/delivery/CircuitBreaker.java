@@ -0,0 +1,287 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.hc.core5.http.HttpStatus;
+
+/**
+ * Stops sending notifications to the webhook that keeps failing, so the delivery threads
+ * do not wait for the timeout of the endpoint that has been removed or is down.
+ * The circuit of the endpoint opens after several consecutive failures or when most of the recent
+ * requests have failed. When the circuit is open the notifications are not sent until the break is over,
+ * then the single request checks if the endpoint is back (half-open state). The break doubles after every failed check.
+ */
+public final class CircuitBreaker {
+
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreaker.class.getName());
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    static final int WINDOW_SIZE = 20;
+    static final int MIN_CALLS = 10;
+    static final int FAILURE_RATE_THRESHOLD = 50;
+    static final int CONSECUTIVE_FAILURES_THRESHOLD = 5;
+    static final long BASE_BREAK_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    static final long MAX_BREAK_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    /**
+     * How long the notification waits when the other one checks if the endpoint is back.
+     */
+    static final long PROBE_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    /**
+     * How long the probe is reserved for the notification. Probe that has not been answered by then,
+     * for example because its notification has been dropped before sending, is handed out again.
+     */
+    static final long PROBE_LEASE_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    private static final long IDLE_CIRCUIT_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final CircuitBreaker INSTANCE = new CircuitBreaker();
+
+    private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    CircuitBreaker() {
+    }
+
+    public static CircuitBreaker get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Checks if the request can be sent to the webhook.
+     *
+     * @param url webhook url
+     * @return <code>0</code> when the request can be sent, otherwise time in milliseconds after which it should be tried again
+     */
+    public long acquire(String url) {
+        return acquire(url, System.currentTimeMillis());
+    }
+
+    long acquire(String url, long now) {
+        Circuit circuit = circuits.get(Endpoints.normalize(url));
+        return circuit == null ? 0 : circuit.acquire(now);
+    }
+
+    /**
+     * Records outcome of the request sent to the webhook.
+     */
+    public void record(String url, DeliveryResult result) {
+        record(url, !isEndpointFailure(result), System.currentTimeMillis());
+    }
+
+    void record(String url, boolean success, long now) {
+        String endpoint = Endpoints.normalize(url);
+        circuits.computeIfAbsent(endpoint, Circuit::new).record(success, now);
+        if (success) {
+            circuits.values().removeIf(circuit -> circuit.isIdle(now));
+        }
+    }
+
+    /**
+     * Returns state of the endpoints that have been used recently.
+     */
+    public List<Status> getStatuses() {
+        long now = System.currentTimeMillis();
+        List<Status> statuses = new ArrayList<>();
+        circuits.values().forEach(circuit -> statuses.add(circuit.getStatus(now)));
+        statuses.sort(Comparator.comparing(Status::getEndpoint));
+        return statuses;
+    }
+
+    /**
+     * Returns <code>true</code> when the result shows that the endpoint is not working. Payload problems
+     * are caused by the notification so they do not affect other notifications sent to the same endpoint.
+     */
+    static boolean isEndpointFailure(DeliveryResult result) {
+        if (result.isSuccess()) {
+            return false;
+        }
+        return result.getStatusCode() != HttpStatus.SC_BAD_REQUEST
+                && result.getStatusCode() != HttpStatus.SC_REQUEST_TOO_LONG;
+    }
+
+    private static final class Circuit {
+
+        private final String endpoint;
+        private final boolean[] window = new boolean[WINDOW_SIZE];
+        private int calls;
+        private int failures;
+        private int next;
+        private int consecutiveFailures;
+
+        private State state = State.CLOSED;
+        private long breakMillis = BASE_BREAK_MILLIS;
+        private long openUntil;
+        private boolean probing;
+        private long probeUntil;
+        private long lastUsed;
+
+        Circuit(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized long acquire(long now) {
+            switch (state) {
+                case OPEN:
+                    if (now < openUntil) {
+                        return openUntil - now;
+                    }
+                    state = State.HALF_OPEN;
+                    probe(now);
+                    return 0;
+                case HALF_OPEN:
+                    if (probing && now < probeUntil) {
+                        return PROBE_WAIT_MILLIS;
+                    }
+                    probe(now);
+                    return 0;
+                default:
+                    return 0;
+            }
+        }
+
+        private void probe(long now) {
+            probing = true;
+            probeUntil = now + PROBE_LEASE_MILLIS;
+        }
+
+        synchronized void record(boolean success, long now) {
+            lastUsed = now;
+            if (state == State.OPEN) {
+                // response to the request sent before the circuit has been opened
+                return;
+            }
+            if (success) {
+                consecutiveFailures = 0;
+                if (state == State.HALF_OPEN) {
+                    close();
+                } else {
+                    add(false);
+                }
+                return;
+            }
+
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN) {
+                breakMillis = Math.min(MAX_BREAK_MILLIS, breakMillis * 2);
+                open(now);
+                return;
+            }
+            add(true);
+            if (consecutiveFailures >= CONSECUTIVE_FAILURES_THRESHOLD
+                    || calls >= MIN_CALLS && failures * 100 >= calls * FAILURE_RATE_THRESHOLD) {
+                open(now);
+            }
+        }
+
+        private void add(boolean failure) {
+            if (calls == WINDOW_SIZE) {
+                if (window[next]) {
+                    failures--;
+                }
+            } else {
+                calls++;
+            }
+            window[next] = failure;
+            if (failure) {
+                failures++;
+            }
+            next = (next + 1) % WINDOW_SIZE;
+        }
+
+        private void open(long now) {
+            state = State.OPEN;
+            probing = false;
+            openUntil = now + breakMillis;
+            LOGGER.log(Level.INFO, "Webhook {0} is not available, notifications are suspended for {1} seconds",
+                    new Object[]{Endpoints.mask(endpoint), TimeUnit.MILLISECONDS.toSeconds(breakMillis)});
+        }
+
+        private void close() {
+            state = State.CLOSED;
+            probing = false;
+            breakMillis = BASE_BREAK_MILLIS;
+            calls = 0;
+            failures = 0;
+            next = 0;
+            LOGGER.log(Level.INFO, "Webhook {0} is available again", Endpoints.mask(endpoint));
+        }
+
+        synchronized boolean isIdle(long now) {
+            return state == State.CLOSED && now - lastUsed > IDLE_CIRCUIT_MILLIS;
+        }
+
+        synchronized Status getStatus(long now) {
+            return new Status(Endpoints.mask(endpoint), state, calls == 0 ? 0 : failures * 100 / calls,
+                    consecutiveFailures, state == State.OPEN ? Math.max(0, openUntil - now) : 0);
+        }
+    }
+
+    /**
+     * Snapshot of the circuit presented to the user.
+     */
+    public static final class Status {
+
+        private final String endpoint;
+        private final State state;
+        private final int failureRate;
+        private final int consecutiveFailures;
+        private final long remainingBreakMillis;
+
+        Status(String endpoint, State state, int failureRate, int consecutiveFailures, long remainingBreakMillis) {
+            this.endpoint = endpoint;
+            this.state = state;
+            this.failureRate = failureRate;
+            this.consecutiveFailures = consecutiveFailures;
+            this.remainingBreakMillis = remainingBreakMillis;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * Returns percentage of recent requests that have failed.
+         */
+        public int getFailureRate() {
+            return failureRate;
+        }
+
+        public int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+        public long getRemainingBreakMillis() {
+            return remainingBreakMillis;
+        }
+
+        public long getRemainingBreakSeconds() {
+            return TimeUnit.MILLISECONDS.toSeconds(remainingBreakMillis);
+        }
+    }
+}
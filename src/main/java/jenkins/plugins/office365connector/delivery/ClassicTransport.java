@@ -0,0 +1,59 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+
+/**
+ * Blocking transport that occupies the calling thread until the webhook responds.
+ */
+public class ClassicTransport implements DeliveryTransport {
+
+    @Override
+    public void send(String url, byte[] data, int timeout, Consumer<DeliveryResult> callback) {
+        DeliveryResult result;
+        try {
+            CloseableHttpClient client = HttpClientRegistry.get().getClient(url, timeout);
+            HttpPost post = new HttpPost(url);
+            post.setEntity(new ByteArrayEntity(data, ContentType.APPLICATION_JSON));
+
+            // response must be consumed inside the handler so the connection is released to the pool
+            result = client.execute(post, httpResponse -> {
+                int code = httpResponse.getCode();
+                if (code < HttpStatus.SC_BAD_REQUEST) {
+                    return DeliveryResult.response(code, null);
+                }
+                String body = EntityUtils.toString(httpResponse.getEntity(), StandardCharsets.UTF_8);
+                Header retryAfter = httpResponse.getFirstHeader(HttpHeaders.RETRY_AFTER);
+                return DeliveryResult.response(code, body,
+                        RetryPolicy.parseRetryAfter(retryAfter == null ? null : retryAfter.getValue()));
+            });
+        } catch (IOException | RuntimeException e) {
+            // malformed URL or the client closed in the meantime must be reported like any other failure
+            result = DeliveryResult.failure(e);
+        }
+        callback.accept(result);
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.plugins.office365connector.DigestBuffer;
+import jenkins.plugins.office365connector.Webhook;
+
+/**
+ * Plugin-wide executor that delivers notifications to the webhooks.
+ * The number of workers and the number of waiting notifications are bounded so the load
+ * does not grow with the number of builds. Waiting notifications are taken by their {@link Priority}.
+ * When the queue is full the notification is rejected with {@link RejectedExecutionException}
+ * and the caller is expected to report it.
+ */
+public final class DeliveryEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(DeliveryEngine.class.getName());
+
+    public static final int DEFAULT_THREADS = 4;
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
+
+    /**
+     * Milestone of the shutdown after which no notification is sent.
+     */
+    public static final String STOPPED = "office365connector.delivery-stopped";
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static final DeliveryEngine INSTANCE = new DeliveryEngine();
+
+    private static final DeliveryTransport CLASSIC_TRANSPORT = new ClassicTransport();
+    private static final DeliveryTransport ASYNC_TRANSPORT = new AsyncTransport();
+
+    private volatile ThreadPoolExecutor executor;
+    private int queueSize;
+    private boolean stopped;
+
+    private DeliveryEngine() {
+    }
+
+    public static DeliveryEngine get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues the task for delivery.
+     *
+     * @param task task that sends the notification
+     * @throws RejectedExecutionException when the queue is full or engine has been stopped
+     */
+    public void submit(Runnable task) {
+        getExecutor().execute(task);
+    }
+
+    /**
+     * Returns transport selected in the global configuration.
+     */
+    public DeliveryTransport getTransport() {
+        Webhook.DescriptorImpl global = Webhook.DescriptorImpl.getGlobal();
+        return global != null && global.isAsyncTransport() ? ASYNC_TRANSPORT : CLASSIC_TRANSPORT;
+    }
+
+    /**
+     * Applies new pool and queue size. Notifications that are already queued are delivered
+     * by the previous executor which is shut down gracefully.
+     */
+    public synchronized void configure(int threads, int queueSize) {
+        if (executor == null) {
+            return;
+        }
+        if (this.queueSize != queueSize) {
+            // queue capacity cannot be changed so let the old executor drain its queue
+            executor.shutdown();
+            executor = createExecutor(threads, queueSize);
+            this.queueSize = queueSize;
+        } else if (executor.getMaximumPoolSize() != threads) {
+            // order matters as core size must not exceed maximum size
+            if (threads > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(threads);
+                executor.setCorePoolSize(threads);
+            } else {
+                executor.setCorePoolSize(threads);
+                executor.setMaximumPoolSize(threads);
+            }
+        }
+    }
+
+    /**
+     * Returns number of notifications that wait for the worker.
+     */
+    public int getQueueSize() {
+        ThreadPoolExecutor current = executor;
+        return current == null ? 0 : current.getQueue().size();
+    }
+
+    /**
+     * Returns number of notifications that are being sent.
+     */
+    public int getActiveCount() {
+        ThreadPoolExecutor current = executor;
+        return current == null ? 0 : current.getActiveCount();
+    }
+
+    /**
+     * Returns {@code true} when the engine has been stopped and does not accept notifications.
+     */
+    public synchronized boolean isStopped() {
+        return stopped;
+    }
+
+    private synchronized ThreadPoolExecutor getExecutor() {
+        if (stopped) {
+            throw new RejectedExecutionException("Delivery engine has been stopped");
+        }
+        if (executor == null) {
+            Webhook.DescriptorImpl global = Webhook.DescriptorImpl.getGlobal();
+            int threads = global == null ? DEFAULT_THREADS : global.getDeliveryThreads();
+            queueSize = global == null ? DEFAULT_QUEUE_SIZE : global.getDeliveryQueueSize();
+            executor = createExecutor(threads, queueSize);
+        }
+        return executor;
+    }
+
+    private static ThreadPoolExecutor createExecutor(int threads, int queueSize) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new DeliveryQueue(queueSize),
+                new NamingThreadFactory(new DaemonThreadFactory(), "Office365Connector delivery"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // idle controller should not keep the threads
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    @Terminator(requires = DigestBuffer.FLUSHED, attains = STOPPED)
+    public static void shutdown() {
+        ThreadPoolExecutor current;
+        synchronized (INSTANCE) {
+            current = INSTANCE.executor;
+            INSTANCE.executor = null;
+            INSTANCE.stopped = true;
+        }
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOGGER.log(Level.WARNING, "Dropped {0} notifications on shutdown", current.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Api;
+import hudson.model.ManagementLink;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+import org.kohsuke.stapler.verb.GET;
+
+/**
+ * Presents the state of the notification delivery on the <i>Manage Jenkins</i> page.
+ * Delivery metrics are also available as <code>api/json</code> so they can be collected by the monitoring.
+ */
+@Extension
+@ExportedBean
+public class DeliveryManagementLink extends ManagementLink {
+
+    private static final Gson GSON = new Gson();
+
+    @Override
+    public String getIconFileName() {
+        return "symbol-analytics";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Office 365 Connector";
+    }
+
+    @Override
+    public String getDescription() {
+        return "State of the notifications delivered to the webhooks.";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "office365connector";
+    }
+
+    @NonNull
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    public Api getApi() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        return new Api(this);
+    }
+
+    @Exported(inline = true)
+    public DeliveryMetrics getMetrics() {
+        return DeliveryMetrics.get();
+    }
+
+    public List<NotificationPipeline.Stage> getStages() {
+        return NotificationPipeline.get().getStages();
+    }
+
+    public int getQueueSize() {
+        return DeliveryEngine.get().getQueueSize();
+    }
+
+    public int getActiveCount() {
+        return DeliveryEngine.get().getActiveCount();
+    }
+
+    /**
+     * Returns how long the new notification would wait for the rate limit of the webhook.
+     */
+    public Map<String, Long> getWaitTimes() {
+        return RateLimiter.get().getWaitTimes();
+    }
+
+    public List<CircuitBreaker.Status> getCircuits() {
+        return CircuitBreaker.get().getStatuses();
+    }
+
+    /**
+     * Returns recently completed notifications, limited to the job and endpoint when given.
+     */
+    public List<DeliveryRecord> getDeliveries(String job, String endpoint) {
+        return RecentDeliveries.get().getRecords(job, endpoint);
+    }
+
+    /**
+     * Returns recently completed notifications as JSON, limited by <code>job</code>
+     * and <code>endpoint</code> request parameters.
+     */
+    @GET
+    public void doDeliveriesJson(StaplerRequest2 req, StaplerResponse2 rsp) throws IOException {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        List<DeliveryRecord> records = getDeliveries(req.getParameter("job"), req.getParameter("endpoint"));
+        rsp.setContentType("application/json;charset=UTF-8");
+        GSON.toJson(records, rsp.getWriter());
+    }
+}
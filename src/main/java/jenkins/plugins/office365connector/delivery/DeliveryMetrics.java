@@ -0,0 +1,312 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Measures the delivery of notifications: how long they wait in the queue and for the webhook response,
+ * how the webhooks respond and how many requests are repeated. The metrics are collected per endpoint
+ * by lock-free counters so measuring does not slow down the delivery threads.
+ * HTTP client does not report the time of establishing the connection separately, so it is part of the response time.
+ */
+@ExportedBean
+public final class DeliveryMetrics {
+
+    /**
+     * Limits memory used by the metrics when the webhooks are created dynamically,
+     * the endpoints over the limit are counted together.
+     */
+    static final int MAX_ENDPOINTS = 500;
+    static final String OTHER_ENDPOINTS = "other";
+
+    private static final DeliveryMetrics INSTANCE = new DeliveryMetrics();
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    DeliveryMetrics() {
+    }
+
+    public static DeliveryMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records how long the notification has waited for the delivery thread.
+     */
+    public void recordQueueWait(String url, long nanos) {
+        getEndpoint(url).queueWait.record(nanos);
+    }
+
+    /**
+     * Records the request that has been sent and waits for the response.
+     */
+    public void recordRequestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Records the outcome of the request and how long it took since it has been sent.
+     */
+    public void recordResult(String url, DeliveryResult result, long nanos) {
+        inFlight.decrementAndGet();
+        Endpoint endpoint = getEndpoint(url);
+        endpoint.response.record(nanos);
+        endpoint.outcomes[outcomeOf(result)].increment();
+    }
+
+    /**
+     * Records the request that is going to be repeated.
+     */
+    public void recordRetry(String url) {
+        getEndpoint(url).retries.increment();
+    }
+
+    /**
+     * Records the notification that has not been queued because the delivery queue is full.
+     */
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    /**
+     * Returns number of requests that have been sent and wait for the response.
+     */
+    @Exported
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns number of notifications that wait for the delivery thread.
+     */
+    @Exported
+    public int getQueueDepth() {
+        return DeliveryEngine.get().getQueueSize();
+    }
+
+    @Exported
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Exported
+    public List<Endpoint> getEndpoints() {
+        List<Endpoint> sorted = new ArrayList<>(endpoints.values());
+        sorted.sort(Comparator.comparing(Endpoint::getEndpoint));
+        return sorted;
+    }
+
+    private Endpoint getEndpoint(String url) {
+        String endpoint = Endpoints.normalize(url);
+        Endpoint metrics = endpoints.get(endpoint);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (endpoints.size() >= MAX_ENDPOINTS) {
+            return endpoints.computeIfAbsent(OTHER_ENDPOINTS, key -> new Endpoint(OTHER_ENDPOINTS));
+        }
+        return endpoints.computeIfAbsent(endpoint, key -> new Endpoint(Endpoints.mask(key)));
+    }
+
+    private static int outcomeOf(DeliveryResult result) {
+        int statusClass = result.getStatusCode() / 100;
+        return result.getFailure() != null || statusClass < 1 || statusClass > 5 ? 0 : statusClass;
+    }
+
+    /**
+     * Metrics of the single endpoint.
+     */
+    @ExportedBean
+    public static final class Endpoint {
+
+        private final String endpoint;
+        private final Histogram queueWait = new Histogram();
+        private final Histogram response = new Histogram();
+        // index 0 counts requests without the response, other indexes count responses by the status class
+        private final LongAdder[] outcomes = new LongAdder[6];
+        private final LongAdder retries = new LongAdder();
+
+        Endpoint(String endpoint) {
+            this.endpoint = endpoint;
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Returns endpoint with hidden secret.
+         */
+        @Exported
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        @Exported
+        public Histogram getQueueWait() {
+            return queueWait;
+        }
+
+        @Exported
+        public Histogram getResponse() {
+            return response;
+        }
+
+        /**
+         * Returns number of requests that have failed without the response, for instance because of the timeout.
+         */
+        @Exported
+        public long getFailures() {
+            return outcomes[0].sum();
+        }
+
+        @Exported(name = "2xx")
+        public long getSuccessful() {
+            return outcomes[2].sum();
+        }
+
+        @Exported(name = "3xx")
+        public long getRedirected() {
+            return outcomes[3].sum();
+        }
+
+        @Exported(name = "4xx")
+        public long getClientErrors() {
+            return outcomes[4].sum();
+        }
+
+        @Exported(name = "5xx")
+        public long getServerErrors() {
+            return outcomes[5].sum();
+        }
+
+        @Exported
+        public long getRetries() {
+            return retries.sum();
+        }
+    }
+
+    /**
+     * Distribution of durations counted in buckets with fixed bounds.
+     */
+    @ExportedBean
+    public static final class Histogram {
+
+        /**
+         * Upper bounds of the buckets in milliseconds, the last bucket counts longer durations.
+         */
+        static final long[] BOUNDS_MILLIS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+
+        private final LongAdder[] buckets = new LongAdder[BOUNDS_MILLIS.length + 1];
+        private final LongAdder totalNanos = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(Math.max(0, nanos));
+            int bucket = 0;
+            while (bucket < BOUNDS_MILLIS.length && millis > BOUNDS_MILLIS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            totalNanos.add(Math.max(0, nanos));
+        }
+
+        @Exported
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        @Exported
+        public long getAverageMillis() {
+            long count = getCount();
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / count);
+        }
+
+        @Exported
+        public long getP50Millis() {
+            return getPercentileMillis(50);
+        }
+
+        @Exported
+        public long getP95Millis() {
+            return getPercentileMillis(95);
+        }
+
+        @Exported
+        public long getP99Millis() {
+            return getPercentileMillis(99);
+        }
+
+        /**
+         * Returns number of durations in every bucket, see {@link #getBoundsMillis()}.
+         */
+        @Exported
+        public long[] getBuckets() {
+            long[] counts = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+
+        @Exported
+        public long[] getBoundsMillis() {
+            return BOUNDS_MILLIS.clone();
+        }
+
+        /**
+         * Returns upper bound of the bucket that contains the percentile, the last bound when the percentile is over it.
+         */
+        long getPercentileMillis(int percentile) {
+            long[] counts = getBuckets();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (total * percentile + 99) / 100;
+            long seen = 0;
+            for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return BOUNDS_MILLIS[i];
+                }
+            }
+            return BOUNDS_MILLIS[BOUNDS_MILLIS.length - 1];
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue of the delivery executor that takes notifications by their {@link Priority}.
+ * Every priority may occupy only its share of the queue and when the queue is full the newest notification
+ * of lower priority is dropped to make room for the more important one. To avoid starvation the waiting
+ * notification of lower priority is taken after {@link #STARVATION_LIMIT} notifications of higher priority.
+ * <p>
+ * The queue never blocks producers, {@link #put(Runnable)} fails the same way as {@link #offer(Runnable)}
+ * as the executor only offers the tasks.
+ */
+final class DeliveryQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    /**
+     * Number of notifications of higher priority that can be taken while the notification of lower priority waits.
+     */
+    static final int STARVATION_LIMIT = 10;
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final int capacity;
+    private final List<ArrayDeque<Runnable>> queues = new ArrayList<>();
+    private final int[] skipped = new int[PRIORITIES.length];
+    private int count;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    DeliveryQueue(int capacity) {
+        this.capacity = capacity;
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+    }
+
+    static Priority priorityOf(Runnable task) {
+        return task instanceof Priority.Task ? ((Priority.Task) task).getPriority() : Priority.NORMAL;
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        Objects.requireNonNull(task);
+        Priority priority = priorityOf(task);
+        Runnable dropped = null;
+        lock.lock();
+        try {
+            ArrayDeque<Runnable> queue = queues.get(priority.ordinal());
+            if (queue.size() >= priority.getLimit(capacity)) {
+                return false;
+            }
+            if (count >= capacity) {
+                dropped = dropLowerThan(priority);
+                if (dropped == null) {
+                    return false;
+                }
+            }
+            queue.addLast(task);
+            count++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        // outside of the lock as the task reports its outcome
+        if (dropped instanceof Priority.Task) {
+            ((Priority.Task) dropped).onDropped();
+        }
+        return true;
+    }
+
+    /**
+     * Removes the newest task of the lowest priority that is lower than the given one.
+     */
+    private Runnable dropLowerThan(Priority priority) {
+        for (int i = PRIORITIES.length - 1; i > priority.ordinal(); i--) {
+            ArrayDeque<Runnable> queue = queues.get(i);
+            if (!queue.isEmpty()) {
+                count--;
+                return queue.pollLast();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) {
+        return offer(task);
+    }
+
+    @Override
+    public void put(Runnable task) {
+        if (!offer(task)) {
+            throw new IllegalStateException("Delivery queue is full");
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the task of the highest priority unless the task of lower priority has waited for too long.
+     * Must be called with the lock held and at least one task in the queue.
+     */
+    private Runnable dequeue() {
+        int highest = -1;
+        int starving = -1;
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            if (queues.get(i).isEmpty()) {
+                continue;
+            }
+            if (highest < 0) {
+                highest = i;
+            } else if (starving < 0 && skipped[i] >= STARVATION_LIMIT) {
+                starving = i;
+            }
+        }
+        int selected = starving >= 0 ? starving : highest;
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            if (i > selected && !queues.get(i).isEmpty()) {
+                skipped[i]++;
+            } else {
+                skipped[i] = 0;
+            }
+        }
+        count--;
+        return queues.get(selected).pollFirst();
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            for (ArrayDeque<Runnable> queue : queues) {
+                if (!queue.isEmpty()) {
+                    return queue.peekFirst();
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object task) {
+        lock.lock();
+        try {
+            for (ArrayDeque<Runnable> queue : queues) {
+                if (queue.remove(task)) {
+                    count--;
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns number of waiting tasks of the given priority.
+     */
+    int size(Priority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority.ordinal()).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            while (count > 0 && drained < maxElements) {
+                target.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns iterator over the snapshot of the queue in order of priorities.
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        lock.lock();
+        try {
+            List<Runnable> snapshot = new ArrayList<>(count);
+            for (ArrayDeque<Runnable> queue : queues) {
+                snapshot.addAll(queue);
+            }
+            return Collections.unmodifiableList(snapshot).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of the notification that has been completed, either delivered or given up.
+ * Holds only short values, without the payload, so many records can be kept in memory.
+ */
+public final class DeliveryRecord {
+
+    public enum Status {
+        /**
+         * Webhook has accepted the notification.
+         */
+        DELIVERED,
+        /**
+         * Webhook has rejected the notification and it was not repeated.
+         */
+        REJECTED,
+        /**
+         * Notification has not been delivered within the allowed attempts or time.
+         */
+        ABANDONED,
+        /**
+         * Notification has not been queued because the delivery queue was full,
+         * it is kept in the outbox and sent again after restart.
+         */
+        DROPPED
+    }
+
+    private final String job;
+    private final int build;
+    private final String endpoint;
+    private final Status status;
+    private final int statusCode;
+    private final int payloadSize;
+    private final long createdAt;
+    private final long completedAt;
+    private final long[] attemptedAt;
+
+    /**
+     * @param job         full name of the job, <code>null</code> when not known
+     * @param build       number of the build, <code>0</code> when not known
+     * @param endpoint    endpoint with hidden secret
+     * @param status      final status of the notification
+     * @param statusCode  status code of the last response, <code>0</code> when there was no response
+     * @param payloadSize size of the payload in bytes
+     * @param createdAt   time when the notification was created
+     * @param completedAt time when the notification was completed
+     * @param attemptedAt times when the request was sent
+     */
+    public DeliveryRecord(String job, int build, String endpoint, Status status, int statusCode, int payloadSize,
+                          long createdAt, long completedAt, long[] attemptedAt) {
+        this.job = job;
+        this.build = build;
+        this.endpoint = endpoint;
+        this.status = status;
+        this.statusCode = statusCode;
+        this.payloadSize = payloadSize;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+        this.attemptedAt = attemptedAt.clone();
+    }
+
+    public String getJob() {
+        return job;
+    }
+
+    public int getBuild() {
+        return build;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public int getPayloadSize() {
+        return payloadSize;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getCompletedAt() {
+        return completedAt;
+    }
+
+    public int getAttempts() {
+        return attemptedAt.length;
+    }
+
+    public long[] getAttemptedAt() {
+        return attemptedAt.clone();
+    }
+
+    /**
+     * Returns time (in milliseconds) from the creation of the notification to its first attempt.
+     */
+    public long getFirstAttemptMillis() {
+        return attemptedAt.length == 0 ? 0 : attemptedAt[0] - createdAt;
+    }
+
+    /**
+     * Returns time (in milliseconds) from the creation of the notification to its completion.
+     */
+    public long getDurationMillis() {
+        return completedAt - createdAt;
+    }
+
+    /**
+     * Returns how long ago the notification was completed, presented to the user.
+     */
+    public long getSecondsAgo() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - completedAt);
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import org.apache.hc.core5.http.HttpStatus;
+
+/**
+ * Outcome of the single attempt of posting data to the webhook.
+ */
+public final class DeliveryResult {
+
+    private final int statusCode;
+    private final String body;
+    private final Exception failure;
+    private final long retryAfterMillis;
+
+    private DeliveryResult(int statusCode, String body, Exception failure, long retryAfterMillis) {
+        this.statusCode = statusCode;
+        this.body = body;
+        this.failure = failure;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public static DeliveryResult response(int statusCode, String body) {
+        return response(statusCode, body, 0);
+    }
+
+    public static DeliveryResult response(int statusCode, String body, long retryAfterMillis) {
+        return new DeliveryResult(statusCode, body, null, retryAfterMillis);
+    }
+
+    public static DeliveryResult failure(Exception failure) {
+        return new DeliveryResult(0, null, failure, 0);
+    }
+
+    /**
+     * Returns <code>true</code> when the webhook accepted the request.
+     */
+    public boolean isSuccess() {
+        return failure == null && statusCode < HttpStatus.SC_BAD_REQUEST;
+    }
+
+    /**
+     * Returns status code or <code>0</code> when the request has not reached the webhook.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns response body for the rejected request, <code>null</code> otherwise.
+     */
+    public String getBody() {
+        return body;
+    }
+
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * Returns delay requested by the webhook with <code>Retry-After</code> header, <code>0</code> if not requested.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
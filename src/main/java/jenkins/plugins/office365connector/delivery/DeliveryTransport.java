@@ -0,0 +1,33 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.function.Consumer;
+
+/**
+ * Posts data to the webhook.
+ */
+public interface DeliveryTransport {
+
+    /**
+     * Sends the data and passes the outcome to the callback. Depending on the implementation
+     * the callback is invoked by the calling thread or asynchronously by the I/O thread.
+     *
+     * @param url      webhook url
+     * @param data     JSON payload encoded in UTF-8
+     * @param timeout  connection and response timeout in milliseconds
+     * @param callback receives the outcome of the request
+     */
+    void send(String url, byte[] data, int timeout, Consumer<DeliveryResult> callback);
+}
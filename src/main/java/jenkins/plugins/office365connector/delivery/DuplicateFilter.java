@@ -0,0 +1,230 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.init.Terminator;
+import hudson.util.AtomicFileWriter;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+
+/**
+ * Remembers the hash of the content that has been delivered recently to every target, so the same card
+ * is not sent again within the window configured for the webhook. Content is remembered only once it has been
+ * delivered, so the card that could not be delivered does not suppress the following ones.
+ * Only the least recently used targets are remembered and the others are forgotten when the capacity is exceeded.
+ * The hashes are saved to the disk shortly after they change, so the window is kept after restart.
+ */
+public final class DuplicateFilter {
+
+    private static final Logger LOGGER = Logger.getLogger(DuplicateFilter.class.getName());
+
+    /**
+     * Maximum number of targets which hashes are remembered.
+     */
+    static final int DEFAULT_CAPACITY = SystemProperties.getInteger(DuplicateFilter.class.getName() + ".capacity", 1000);
+
+    /**
+     * Changes made within that time are saved to the disk at once.
+     */
+    private static final long SAVE_DELAY_SECONDS = 10;
+
+    private static DuplicateFilter instance;
+
+    private final File file;
+    private final Map<String, Sent> sent;
+    private ScheduledFuture<?> saving;
+
+    DuplicateFilter(File file, int capacity) {
+        this.file = file;
+        this.sent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Sent> eldest) {
+                return size() > capacity;
+            }
+        };
+        load();
+    }
+
+    /**
+     * Returns filter which hashes are stored in Jenkins home directory, only in memory when Jenkins is not available.
+     */
+    public static synchronized DuplicateFilter get() {
+        if (instance == null) {
+            Jenkins jenkins = Jenkins.getInstanceOrNull();
+            File file = jenkins == null ? null : new File(jenkins.getRootDir(), "office365connector/sent-hashes.txt");
+            instance = new DuplicateFilter(file, DEFAULT_CAPACITY);
+        }
+        return instance;
+    }
+
+    /**
+     * Checks if the content with given hash has been delivered to the target within the window.
+     *
+     * @param target       identifies the receiver of the notification
+     * @param hash         hash of the content, see {@link #hash(String)}
+     * @param windowMillis time within which the same content is not sent again
+     * @return <code>true</code> when the notification should be skipped
+     */
+    public boolean isDuplicate(String target, String hash, long windowMillis) {
+        return isDuplicate(target, hash, windowMillis, System.currentTimeMillis());
+    }
+
+    synchronized boolean isDuplicate(String target, String hash, long windowMillis, long now) {
+        Sent last = sent.get(target);
+        return last != null && last.hash.equals(hash) && now - last.sentAt < windowMillis;
+    }
+
+    /**
+     * Remembers the content as the last one delivered to the target.
+     *
+     * @param target identifies the receiver of the notification
+     * @param hash   hash of the content, see {@link #hash(String)}
+     */
+    public void markSent(String target, String hash) {
+        markSent(target, hash, System.currentTimeMillis());
+    }
+
+    synchronized void markSent(String target, String hash, long now) {
+        sent.put(target, new Sent(hash, now));
+        scheduleSave();
+    }
+
+    /**
+     * Returns hash of the fields that describe the content, see {@link #hash(String)}.
+     */
+    public static String hash(List<String> fields) {
+        StringBuilder content = new StringBuilder();
+        for (String field : fields) {
+            // length prefix, so the fields are not ambiguous whatever they contain
+            content.append(field == null ? -1 : field.length()).append(':').append(field).append('\n');
+        }
+        return hash(content.toString());
+    }
+
+    /**
+     * Returns hash of the content which is compact enough to be remembered for many targets.
+     */
+    public static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void scheduleSave() {
+        if (file != null && saving == null) {
+            saving = Timer.get().schedule(this::save, SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    void save() {
+        List<String> lines = new ArrayList<>();
+        synchronized (this) {
+            saving = null;
+            // iteration does not change the access order, so the least recently used entries are written first
+            for (Map.Entry<String, Sent> entry : sent.entrySet()) {
+                lines.add(entry.getValue().sentAt + "\t" + entry.getValue().hash + "\t" + entry.getKey());
+            }
+        }
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            AtomicFileWriter writer = new AtomicFileWriter(file.toPath(), StandardCharsets.UTF_8);
+            try {
+                BufferedWriter out = new BufferedWriter(writer);
+                for (String line : lines) {
+                    out.write(line);
+                    out.newLine();
+                }
+                out.flush();
+                writer.commit();
+            } finally {
+                writer.abort();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save " + file, e);
+        }
+    }
+
+    private void load() {
+        if (file == null || !file.exists()) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t", 3);
+                if (fields.length == 3) {
+                    sent.put(fields[2], new Sent(fields[1], Long.parseLong(fields[0])));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Failed to load " + file, e);
+        }
+    }
+
+    /**
+     * Saves the hashes that have not been saved yet.
+     */
+    @Terminator(requires = DeliveryEngine.STOPPED)
+    public static void shutdown() {
+        DuplicateFilter current;
+        synchronized (DuplicateFilter.class) {
+            current = instance;
+        }
+        if (current == null) {
+            return;
+        }
+        synchronized (current) {
+            if (current.saving == null) {
+                return;
+            }
+            current.saving.cancel(false);
+        }
+        current.save();
+    }
+
+    private static final class Sent {
+
+        private final String hash;
+        private final long sentAt;
+
+        private Sent(String hash, long sentAt) {
+            this.hash = hash;
+            this.sentAt = sentAt;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Collects methods that identify the webhook endpoint.
+ */
+public final class Endpoints {
+
+    private static final int VISIBLE_SUFFIX_LENGTH = 6;
+    private static final int PATH_HASH_BYTES = 3;
+    private static final Pattern MASKED = Pattern.compile("[^/\\s]*/\\.\\.\\.\\S* #\\p{XDigit}{" + PATH_HASH_BYTES * 2 + "}");
+
+    private Endpoints() {
+    }
+
+    /**
+     * Returns host and path of the url so the same webhook is identified regardless
+     * of the letter case, query or trailing slash.
+     *
+     * @param url webhook url
+     * @return normalized endpoint
+     */
+    public static String normalize(String url) {
+        if (url == null) {
+            return StringUtils.EMPTY;
+        }
+        try {
+            URI uri = new URI(url.trim());
+            if (uri.getHost() == null) {
+                return url.trim();
+            }
+            String host = uri.getHost().toLowerCase(Locale.ROOT);
+            if (uri.getPort() != -1) {
+                host = host + ":" + uri.getPort();
+            }
+            return host + StringUtils.removeEnd(StringUtils.defaultString(uri.getRawPath()), "/");
+        } catch (URISyntaxException e) {
+            return url.trim();
+        }
+    }
+
+    /**
+     * Hides the path of the endpoint which for most of the webhooks contains the secret.
+     * Short hash of the whole path is added so endpoints with the same suffix, such as <code>.../invoke</code>
+     * of Power Automate, can be told apart.
+     *
+     * @param url webhook url, normalized endpoint or already masked endpoint which is returned unchanged
+     * @return value that can be presented to the user
+     */
+    public static String mask(String url) {
+        if (url != null && MASKED.matcher(url).matches()) {
+            return url;
+        }
+        String endpoint = normalize(url);
+        int pathStart = endpoint.indexOf('/');
+        if (pathStart < 0) {
+            return endpoint;
+        }
+        String path = endpoint.substring(pathStart);
+        String suffix = path.length() <= VISIBLE_SUFFIX_LENGTH ? "" : StringUtils.right(path, VISIBLE_SUFFIX_LENGTH);
+        return endpoint.substring(0, pathStart) + "/..." + suffix + " #" + hash(path);
+    }
+
+    private static String hash(String path) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(path.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, PATH_HASH_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import hudson.Extension;
+import hudson.ProxyConfiguration;
+import hudson.XmlFile;
+import hudson.init.Terminator;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import hudson.util.Secret;
+import jenkins.model.Jenkins;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hc.client5.http.auth.AuthScope;
+import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.io.ModalCloseable;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Keeps long-lived http clients so the connections to the webhooks are kept alive and reused
+ * across notifications. Clients are shared by all notifications that use the same proxy settings and timeout.
+ */
+public final class HttpClientRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(HttpClientRegistry.class.getName());
+
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final int MAX_CONNECTIONS_TOTAL = 100;
+    private static final TimeValue IDLE_CONNECTION_TIMEOUT = TimeValue.ofMinutes(1);
+    private static final int IO_THREADS = 2;
+
+    private static final HttpClientRegistry INSTANCE = new HttpClientRegistry();
+
+    private final ConcurrentMap<ClientKey, CloseableHttpClient> clients = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ClientKey, CloseableHttpAsyncClient> asyncClients = new ConcurrentHashMap<>();
+
+    private HttpClientRegistry() {
+    }
+
+    public static HttpClientRegistry get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns client that should be used to post data to given url.
+     *
+     * @param url     webhook url
+     * @param timeout connection and socket timeout in milliseconds
+     * @return shared client that must not be closed by the caller
+     */
+    public CloseableHttpClient getClient(String url, int timeout) {
+        ClientKey key = ClientKey.of(url, timeout);
+        return clients.computeIfAbsent(key, HttpClientRegistry::createClient);
+    }
+
+    /**
+     * Returns started asynchronous client that should be used to post data to given url.
+     *
+     * @param url     webhook url
+     * @param timeout connection and response timeout in milliseconds
+     * @return shared client that must not be closed by the caller
+     */
+    public CloseableHttpAsyncClient getAsyncClient(String url, int timeout) {
+        ClientKey key = ClientKey.of(url, timeout);
+        return asyncClients.computeIfAbsent(key, HttpClientRegistry::createAsyncClient);
+    }
+
+    /**
+     * Closes all clients so the new ones are created with the current proxy configuration.
+     */
+    public void invalidate() {
+        List<ModalCloseable> closed = new ArrayList<>(clients.values());
+        closed.addAll(asyncClients.values());
+        clients.clear();
+        asyncClients.clear();
+        closed.forEach(HttpClientRegistry::close);
+    }
+
+    private static CloseableHttpClient createClient(ClientKey key) {
+        HttpClientBuilder builder = HttpClientBuilder.create();
+        if (key.proxyName != null) {
+            builder.setProxy(new HttpHost(key.proxyName, key.proxyPort));
+            BasicCredentialsProvider credsProvider = createCredentialsProvider(key);
+            if (credsProvider != null) {
+                builder.setDefaultCredentialsProvider(credsProvider);
+            }
+        }
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setDefaultConnectionConfig(createConnectionConfig(key))
+                .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+                .setMaxConnTotal(MAX_CONNECTIONS_TOTAL)
+                .build();
+
+        builder.setDefaultRequestConfig(createRequestConfig(key));
+        builder.setConnectionManager(connectionManager);
+        builder.evictIdleConnections(IDLE_CONNECTION_TIMEOUT);
+
+        return builder.build();
+    }
+
+    private static CloseableHttpAsyncClient createAsyncClient(ClientKey key) {
+        HttpAsyncClientBuilder builder = HttpAsyncClientBuilder.create();
+        if (key.proxyName != null) {
+            builder.setProxy(new HttpHost(key.proxyName, key.proxyPort));
+            BasicCredentialsProvider credsProvider = createCredentialsProvider(key);
+            if (credsProvider != null) {
+                builder.setDefaultCredentialsProvider(credsProvider);
+            }
+        }
+
+        // HTTP/2 is used only when the server supports it, otherwise HTTP/1.1 is used
+        TlsConfig tlsConfig = TlsConfig.custom()
+                .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                .build();
+
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setDefaultConnectionConfig(createConnectionConfig(key))
+                .setDefaultTlsConfig(tlsConfig)
+                .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+                .setMaxConnTotal(MAX_CONNECTIONS_TOTAL)
+                .build();
+
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(IO_THREADS)
+                .setSoTimeout(key.timeout, TimeUnit.MILLISECONDS)
+                .build();
+
+        builder.setDefaultRequestConfig(createRequestConfig(key));
+        builder.setConnectionManager(connectionManager);
+        builder.setIOReactorConfig(ioReactorConfig);
+        builder.evictIdleConnections(IDLE_CONNECTION_TIMEOUT);
+
+        CloseableHttpAsyncClient client = builder.build();
+        client.start();
+        return client;
+    }
+
+    private static BasicCredentialsProvider createCredentialsProvider(ClientKey key) {
+        // Consider it to be passed if username specified. Sufficient?
+        if (StringUtils.isBlank(key.proxyUserName)) {
+            return null;
+        }
+        BasicCredentialsProvider credsProvider = new BasicCredentialsProvider();
+        credsProvider.setCredentials(
+                new AuthScope(key.proxyName, key.proxyPort),
+                new UsernamePasswordCredentials(key.proxyUserName, Secret.toString(key.proxyPassword).toCharArray()));
+        return credsProvider;
+    }
+
+    private static RequestConfig createRequestConfig(ClientKey key) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(key.timeout, TimeUnit.MILLISECONDS)
+                .setResponseTimeout(key.timeout, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    private static ConnectionConfig createConnectionConfig(ClientKey key) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(key.timeout, TimeUnit.MILLISECONDS)
+                .setSocketTimeout(key.timeout, TimeUnit.MILLISECONDS)
+                .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                .build();
+    }
+
+    private static void close(ModalCloseable client) {
+        try {
+            client.close(CloseMode.GRACEFUL);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Failed to close http client", e);
+        }
+    }
+
+    static boolean isNoProxyHost(String host, List<Pattern> noProxyHostPatterns) {
+        if (host != null && noProxyHostPatterns != null) {
+            for (Pattern p : noProxyHostPatterns) {
+                if (p.matcher(host).matches()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Terminator(requires = DeliveryEngine.STOPPED)
+    public static void shutdown() {
+        INSTANCE.invalidate();
+    }
+
+    /**
+     * Identifies settings that make the clients different.
+     */
+    static final class ClientKey {
+
+        private final String proxyName;
+        private final int proxyPort;
+        private final String proxyUserName;
+        private final Secret proxyPassword;
+        /**
+         * Compared instead of the password, so the password is not kept in plain text by the long-lived key.
+         */
+        private final String proxyPasswordHash;
+        private final int timeout;
+
+        private ClientKey(String proxyName, int proxyPort, String proxyUserName, Secret proxyPassword, int timeout) {
+            this.proxyName = proxyName;
+            this.proxyPort = proxyPort;
+            this.proxyUserName = proxyUserName;
+            this.proxyPassword = proxyPassword;
+            this.proxyPasswordHash = proxyPassword == null ? null : DuplicateFilter.hash(Secret.toString(proxyPassword));
+            this.timeout = timeout;
+        }
+
+        static ClientKey of(String url, int timeout) {
+            Jenkins jenkins = Jenkins.getInstanceOrNull();
+            ProxyConfiguration proxy = jenkins == null ? null : jenkins.proxy;
+            if (proxy == null || isNoProxyHost(url, proxy.getNoProxyHostPatterns())) {
+                return new ClientKey(null, 0, null, null, timeout);
+            }
+            return new ClientKey(proxy.name, proxy.port, proxy.getUserName(), proxy.getSecretPassword(), timeout);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClientKey)) {
+                return false;
+            }
+            ClientKey that = (ClientKey) o;
+            return proxyPort == that.proxyPort
+                    && timeout == that.timeout
+                    && Objects.equals(proxyName, that.proxyName)
+                    && Objects.equals(proxyUserName, that.proxyUserName)
+                    && Objects.equals(proxyPasswordHash, that.proxyPasswordHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(proxyName, proxyPort, proxyUserName, proxyPasswordHash, timeout);
+        }
+    }
+
+    /**
+     * Drops the clients when proxy configuration has changed.
+     */
+    @Extension
+    public static class ProxyConfigurationListener extends SaveableListener {
+
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof ProxyConfiguration) {
+                LOGGER.fine("Proxy configuration has changed, recreating http clients");
+                INSTANCE.invalidate();
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.util.SystemProperties;
+
+/**
+ * Prepares notifications outside of the thread that has reported the event, so the build is not held
+ * by evaluation of the macros, rendering of the cards and serialization of the payload.
+ * Notification goes through the stages: snapshot (done by the caller), evaluate, render, serialize and deliver.
+ * Every stage has its own workers and bounded queue; when the queue is full the task is processed by the thread
+ * that passes it, so the notification is delayed but never dropped. The only exception is the first asynchronous
+ * stage which rejects the notification, as it is passed by the thread that has reported the event and should not
+ * be held. Time spent by every stage is measured.
+ */
+public final class NotificationPipeline {
+
+    private static final Logger LOGGER = Logger.getLogger(NotificationPipeline.class.getName());
+
+    /**
+     * Allows to prepare notifications by the thread that reports the event, as it was done before.
+     */
+    private static final boolean DISABLED = SystemProperties.getBoolean(NotificationPipeline.class.getName() + ".disabled");
+
+    /**
+     * Milestone of the shutdown after which the pipeline does not deliver any notification.
+     */
+    public static final String STOPPED = "office365connector.pipeline-stopped";
+
+    static final int STAGE_THREADS = 2;
+    static final int STAGE_QUEUE_SIZE = 100;
+
+    private static final NotificationPipeline INSTANCE = new NotificationPipeline();
+
+    private final Stage snapshot = new Stage("Snapshot", 0, true);
+    private final Stage evaluate = new Stage("Evaluate", STAGE_THREADS, false);
+    private final Stage render = new Stage("Render", STAGE_THREADS, true);
+    private final Stage serialize = new Stage("Serialize", 1, true);
+    private final Stage deliver = new Stage("Deliver", 1, true);
+
+    NotificationPipeline() {
+    }
+
+    public static NotificationPipeline get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns <code>false</code> when notifications should be prepared by the thread that reports the event.
+     */
+    public static boolean isEnabled() {
+        return !DISABLED;
+    }
+
+    /**
+     * Passes the notification through the stages. Snapshot is taken by the calling thread so it reflects
+     * the state at the time of the event, all other stages are executed asynchronously.
+     * When a stage returns <code>null</code> the notification is not processed any further.
+     *
+     * @return <code>false</code> when the notification has been rejected because too many notifications wait,
+     * then the caller is expected to prepare the notification by itself so it is not lost
+     */
+    public <S, E, R, P> boolean submit(Supplier<S> snapshotter, Function<S, E> evaluator, Function<E, R> renderer,
+                                       Function<R, P> serializer, Consumer<P> deliverer) {
+        long queuedAt = System.nanoTime();
+        AtomicBoolean accepted = new AtomicBoolean(true);
+        snapshot.process(queuedAt, () -> {
+            S snapshotted = snapshotter.get();
+            if (snapshotted == null) {
+                return;
+            }
+            accepted.set(evaluate.execute(() -> {
+                E evaluated = evaluator.apply(snapshotted);
+                if (evaluated == null) {
+                    return;
+                }
+                render.execute(() -> {
+                    R rendered = renderer.apply(evaluated);
+                    if (rendered == null) {
+                        return;
+                    }
+                    serialize.execute(() -> {
+                        P serialized = serializer.apply(rendered);
+                        if (serialized == null) {
+                            return;
+                        }
+                        deliver.execute(() -> deliverer.accept(serialized));
+                    });
+                });
+            }));
+        });
+        return accepted.get();
+    }
+
+    public List<Stage> getStages() {
+        return Arrays.asList(snapshot, evaluate, render, serialize, deliver);
+    }
+
+    @Terminator(attains = STOPPED)
+    public static void shutdown() {
+        // stages are stopped in order so the notifications that are in progress reach the delivery
+        for (Stage stage : INSTANCE.getStages()) {
+            stage.shutdown();
+        }
+    }
+
+    /**
+     * Single step of the pipeline together with its statistics.
+     */
+    public static final class Stage {
+
+        private final String name;
+        private final int threads;
+        private final boolean callerRuns;
+
+        private ThreadPoolExecutor executor;
+        private boolean stopped;
+
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAdder totalProcessNanos = new LongAdder();
+        private final AtomicLong maxProcessNanos = new AtomicLong();
+
+        /**
+         * @param callerRuns <code>true</code> when the task is processed by the passing thread if the stage is busy
+         *                   or stopped, otherwise the task is rejected
+         */
+        Stage(String name, int threads, boolean callerRuns) {
+            this.name = name;
+            this.threads = threads;
+            this.callerRuns = callerRuns;
+        }
+
+        /**
+         * Executes the task by the stage.
+         *
+         * @return <code>false</code> when the task has been rejected
+         */
+        boolean execute(Runnable task) {
+            long queuedAt = System.nanoTime();
+            ThreadPoolExecutor current = DISABLED ? null : getExecutor();
+            if (current == null) {
+                return runByCaller(queuedAt, task);
+            }
+            try {
+                current.execute(() -> process(queuedAt, task));
+                return true;
+            } catch (RejectedExecutionException e) {
+                return runByCaller(queuedAt, task);
+            }
+        }
+
+        private boolean runByCaller(long queuedAt, Runnable task) {
+            if (callerRuns || threads == 0 || DISABLED) {
+                process(queuedAt, task);
+                return true;
+            }
+            rejected.increment();
+            LOGGER.log(Level.WARNING, "Rejected notification at stage {0}, too many notifications wait", name);
+            return false;
+        }
+
+        void process(long queuedAt, Runnable task) {
+            long startedAt = System.nanoTime();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                failed.increment();
+                LOGGER.log(Level.WARNING, "Failed to process notification at stage " + name, e);
+            } finally {
+                long processNanos = System.nanoTime() - startedAt;
+                processed.increment();
+                totalWaitNanos.add(startedAt - queuedAt);
+                totalProcessNanos.add(processNanos);
+                maxProcessNanos.accumulateAndGet(processNanos, Math::max);
+            }
+        }
+
+        private synchronized ThreadPoolExecutor getExecutor() {
+            if (threads == 0 || stopped) {
+                return null;
+            }
+            if (executor == null) {
+                executor = new ThreadPoolExecutor(threads, threads,
+                        60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(STAGE_QUEUE_SIZE),
+                        new NamingThreadFactory(new DaemonThreadFactory(), "Office365Connector " + name),
+                        // rejected task is processed or rejected by the caller
+                        new ThreadPoolExecutor.AbortPolicy());
+                executor.allowCoreThreadTimeOut(true);
+            }
+            return executor;
+        }
+
+        void shutdown() {
+            ThreadPoolExecutor current;
+            synchronized (this) {
+                current = executor;
+                executor = null;
+                stopped = true;
+            }
+            if (current == null) {
+                return;
+            }
+            current.shutdown();
+            try {
+                if (!current.awaitTermination(10, TimeUnit.SECONDS)) {
+                    LOGGER.log(Level.WARNING, "Dropped {0} notifications at stage {1} on shutdown",
+                            new Object[]{current.shutdownNow().size(), name});
+                }
+            } catch (InterruptedException e) {
+                current.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public synchronized int getQueueSize() {
+            return executor == null ? 0 : executor.getQueue().size();
+        }
+
+        public long getProcessed() {
+            return processed.sum();
+        }
+
+        public long getFailed() {
+            return failed.sum();
+        }
+
+        /**
+         * Returns number of notifications that have not been processed because the stage was busy or stopped.
+         */
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        /**
+         * Returns average time the notification has waited in the queue of the stage.
+         */
+        public double getAverageWaitMillis() {
+            return average(totalWaitNanos.sum());
+        }
+
+        /**
+         * Returns average time the stage has spent on the notification.
+         */
+        public double getAverageProcessMillis() {
+            return average(totalProcessNanos.sum());
+        }
+
+        public double getMaxProcessMillis() {
+            return toMillis(maxProcessNanos.get());
+        }
+
+        private double average(long totalNanos) {
+            long count = processed.sum();
+            return count == 0 ? 0 : toMillis(totalNanos / count);
+        }
+
+        private static double toMillis(long nanos) {
+            // microseconds precision is enough for the statistics
+            return TimeUnit.NANOSECONDS.toMicros(nanos) / 1000d;
+        }
+    }
+}
@@ -0,0 +1,502 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import hudson.init.Terminator;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * Journal of the notifications that have not been delivered yet so they survive restart of the controller.
+ * Entries are appended to the segment files and acknowledged once they are delivered or abandoned.
+ * All writes are made by the single thread which syncs the whole batch of waiting records at once
+ * (group commit) so the cost of fsync is shared by all notifications stored at the same time.
+ * Segments without pending entries are deleted and sparse segments are compacted by copying
+ * their pending entries to the current segment.
+ * Delivery is at least once: notification sent just before the crash may be sent again after restart.
+ */
+public final class Outbox {
+
+    private static final Logger LOGGER = Logger.getLogger(Outbox.class.getName());
+
+    /**
+     * Allows to turn off the outbox when the disk is too slow.
+     */
+    private static final boolean DISABLED = SystemProperties.getBoolean(Outbox.class.getName() + ".disabled");
+
+    static final long DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int MAX_BATCH = 1000;
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+    /**
+     * How long the caller, which may be the build, waits for the disk. Entry that is not written by then
+     * is written in the background and acknowledgements are queued after it, so it is not lost nor replayed.
+     */
+    private static final long APPEND_WAIT_MILLIS = 250;
+    /**
+     * Segment is compacted when less than one of that many entries is still pending.
+     */
+    private static final int COMPACTION_RATIO = 4;
+
+    private static final byte PUT = 1;
+    private static final byte ACK = 2;
+
+    private static Outbox instance;
+
+    private final File directory;
+    private final long segmentSize;
+    private final BlockingQueue<Record> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong lastId = new AtomicLong();
+
+    // segments are modified only by the writer thread once it has been started
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<Long, Segment> segmentOfEntry = new HashMap<>();
+    private Segment active;
+    private FileChannel channel;
+
+    private List<OutboxEntry> recovered = Collections.emptyList();
+    private Thread writer;
+    private boolean closed;
+
+    Outbox(File directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Returns outbox stored in Jenkins home directory or <code>null</code> when Jenkins is not available
+     * or the outbox has been disabled.
+     */
+    public static synchronized Outbox get() {
+        if (instance == null) {
+            Jenkins jenkins = Jenkins.getInstanceOrNull();
+            if (jenkins == null || DISABLED) {
+                return null;
+            }
+            instance = new Outbox(new File(jenkins.getRootDir(), "office365connector/outbox"), DEFAULT_SEGMENT_SIZE);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns entries that were not acknowledged before the previous shutdown.
+     * Entries are returned only once, following calls return an empty list.
+     */
+    public synchronized List<OutboxEntry> recover() throws IOException {
+        open();
+        List<OutboxEntry> entries = recovered;
+        recovered = Collections.emptyList();
+        return entries;
+    }
+
+    /**
+     * Stores the entry and waits shortly until it has been written to the disk.
+     *
+     * @param entry notification to store
+     * @return identifier that must be used to acknowledge the entry
+     * @throws IOException when the entry could not be stored
+     */
+    public long append(OutboxEntry entry) throws IOException {
+        Record record;
+        synchronized (this) {
+            open();
+            record = new Record(PUT, entry.withId(lastId.incrementAndGet()));
+            queue.add(record);
+        }
+        try {
+            record.written.get(APPEND_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while storing notification");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to store notification", e.getCause());
+        } catch (TimeoutException e) {
+            // slow disk does not hold the build, the notification is stored once the batch is synced
+            LOGGER.log(Level.FINE, "Notification {0} is stored in the background", record.entry.getId());
+        }
+        return record.entry.getId();
+    }
+
+    /**
+     * Marks the entry as delivered so it is not replayed after restart. Does not wait for the disk.
+     *
+     * @param id identifier returned by {@link #append(OutboxEntry)}
+     */
+    public synchronized void acknowledge(long id) {
+        if (id <= 0 || closed) {
+            return;
+        }
+        queue.add(new Record(ACK, new OutboxEntry(id, null, null, 0, 0, 0, 0, null)));
+    }
+
+    /**
+     * Writes all waiting records and stops the writer.
+     */
+    void close() {
+        Thread current;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            current = writer;
+        }
+        if (current == null) {
+            return;
+        }
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Terminator(requires = DeliveryEngine.STOPPED)
+    public static void shutdown() {
+        Outbox current;
+        synchronized (Outbox.class) {
+            current = instance;
+        }
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private synchronized void open() throws IOException {
+        if (closed) {
+            throw new IOException("Outbox has been closed");
+        }
+        if (writer != null) {
+            return;
+        }
+        Files.createDirectories(directory.toPath());
+
+        Map<Long, OutboxEntry> pending = new LinkedHashMap<>();
+        for (File file : listSegments()) {
+            Segment segment = new Segment(segmentNumber(file), file);
+            segments.put(segment.number, segment);
+            readSegment(file, record -> {
+                long id = record.entry.getId();
+                lastId.set(Math.max(lastId.get(), id));
+                if (record.type == PUT) {
+                    pending.put(id, record.entry);
+                    store(id, segment);
+                } else {
+                    pending.remove(id);
+                    release(id);
+                }
+            });
+        }
+        recovered = new ArrayList<>(pending.values());
+        startSegment(segments.isEmpty() ? 1 : segments.lastKey() + 1);
+
+        writer = new Thread(this::writeLoop, "Office365Connector outbox writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void writeLoop() {
+        List<Record> batch = new ArrayList<>();
+        while (!isClosed() || !queue.isEmpty()) {
+            try {
+                Record first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                write(batch);
+                batch.forEach(record -> record.written.complete(null));
+            } catch (InterruptedException e) {
+                // nobody interrupts the writer, keep draining the queue
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to write notification outbox", e);
+                batch.forEach(record -> record.written.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to close outbox segment", e);
+        }
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private void write(List<Record> batch) throws IOException {
+        for (Record record : batch) {
+            writeRecord(record);
+        }
+        channel.force(false);
+
+        if (active.size >= segmentSize) {
+            channel.close();
+            startSegment(active.number + 1);
+        }
+        compact();
+    }
+
+    private void writeRecord(Record record) throws IOException {
+        ByteBuffer buffer = encode(record);
+        active.size += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (record.type == PUT) {
+            store(record.entry.getId(), active);
+        } else {
+            release(record.entry.getId());
+        }
+    }
+
+    /**
+     * Deletes segments starting from the oldest one so the acknowledgements stored in newer
+     * segments never refer to entries that could be replayed.
+     */
+    private void compact() throws IOException {
+        while (segments.size() > 1) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (!oldest.live.isEmpty()) {
+                if (oldest.live.size() * COMPACTION_RATIO > oldest.total) {
+                    return;
+                }
+                readSegment(oldest.file, record -> {
+                    if (record.type == PUT && oldest.live.contains(record.entry.getId())) {
+                        writeRecord(record);
+                    }
+                });
+                channel.force(false);
+            }
+            Files.deleteIfExists(oldest.file.toPath());
+            segments.remove(oldest.number);
+        }
+    }
+
+    private void store(long id, Segment segment) {
+        release(id);
+        segment.live.add(id);
+        segment.total++;
+        segmentOfEntry.put(id, segment);
+    }
+
+    private void release(long id) {
+        Segment segment = segmentOfEntry.remove(id);
+        if (segment != null) {
+            segment.live.remove(id);
+        }
+    }
+
+    private void startSegment(long number) throws IOException {
+        File file = new File(directory, SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+        active = segments.computeIfAbsent(number, key -> new Segment(key, file));
+        channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        active.size = channel.size();
+    }
+
+    private List<File> listSegments() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        List<File> segmentFiles = new ArrayList<>();
+        for (File file : files) {
+            if (segmentNumber(file) > 0) {
+                segmentFiles.add(file);
+            }
+        }
+        segmentFiles.sort((first, second) -> Long.compare(segmentNumber(first), segmentNumber(second)));
+        return segmentFiles;
+    }
+
+    private static long segmentNumber(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static ByteBuffer encode(Record record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(record.type);
+            out.writeLong(record.entry.getId());
+            if (record.type == PUT) {
+                OutboxEntry entry = record.entry;
+                out.writeLong(entry.getCreatedAt());
+                out.writeInt(entry.getTimeout());
+                out.writeInt(entry.getMaxAttempts());
+                out.writeLong(entry.getMaxElapsedMillis());
+                writeString(out, entry.getUrl());
+                writeString(out, entry.getData());
+                writeString(out, entry.getPriority().name());
+            }
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Record decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        long id = in.readLong();
+        if (type == ACK) {
+            return new Record(ACK, new OutboxEntry(id, null, null, 0, 0, 0, 0, null));
+        }
+        long createdAt = in.readLong();
+        int timeout = in.readInt();
+        int maxAttempts = in.readInt();
+        long maxElapsedMillis = in.readLong();
+        String url = readString(in);
+        String data = readString(in);
+        // records written before the priority was stored end with the data
+        Priority priority = in.available() > 0 ? Priority.valueOf(readString(in)) : Priority.NORMAL;
+        return new Record(PUT, new OutboxEntry(id, url, data, timeout, maxAttempts, maxElapsedMillis, createdAt, priority));
+    }
+
+    /**
+     * Reads all complete records, the incomplete or damaged record and everything after it is ignored
+     * as it has been written when the controller crashed.
+     */
+    private static void readSegment(File file, RecordHandler handler) throws IOException {
+        try (InputStream stream = Files.newInputStream(file.toPath());
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                int checksum = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    LOGGER.log(Level.WARNING, "Invalid record in {0}, ignoring the rest of the segment", file);
+                    return;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    LOGGER.log(Level.WARNING, "Damaged record in {0}, ignoring the rest of the segment", file);
+                    return;
+                }
+                handler.handle(decode(payload));
+            }
+        } catch (EOFException e) {
+            LOGGER.log(Level.FINE, "Incomplete record in {0}", file);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private interface RecordHandler {
+        void handle(Record record) throws IOException;
+    }
+
+    private static final class Record {
+
+        private final byte type;
+        private final OutboxEntry entry;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        Record(byte type, OutboxEntry entry) {
+            this.type = type;
+            this.entry = entry;
+        }
+    }
+
+    private static final class Segment {
+
+        private final long number;
+        private final File file;
+        private final Set<Long> live = new HashSet<>();
+        private int total;
+        private long size;
+
+        Segment(long number, File file) {
+            this.number = number;
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+/**
+ * Notification stored in the {@link Outbox} until it is delivered.
+ */
+public final class OutboxEntry {
+
+    private final long id;
+    private final String url;
+    private final String data;
+    private final int timeout;
+    private final int maxAttempts;
+    private final long maxElapsedMillis;
+    private final long createdAt;
+    private final Priority priority;
+
+    public OutboxEntry(long id, String url, String data, int timeout, int maxAttempts, long maxElapsedMillis, long createdAt,
+                       Priority priority) {
+        this.id = id;
+        this.url = url;
+        this.data = data;
+        this.timeout = timeout;
+        this.maxAttempts = maxAttempts;
+        this.maxElapsedMillis = maxElapsedMillis;
+        this.createdAt = createdAt;
+        this.priority = priority;
+    }
+
+    OutboxEntry withId(long id) {
+        return new OutboxEntry(id, url, data, timeout, maxAttempts, maxElapsedMillis, createdAt, priority);
+    }
+
+    /**
+     * Returns identifier assigned by the outbox or <code>0</code> when the entry has not been stored yet.
+     */
+    public long getId() {
+        return id;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getMaxElapsedMillis() {
+        return maxElapsedMillis;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+}
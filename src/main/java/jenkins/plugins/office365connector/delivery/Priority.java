@@ -0,0 +1,75 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.Set;
+
+import jenkins.plugins.office365connector.WebhookRoutes;
+
+/**
+ * Priority of the notification in the delivery queue. Notifications that people act on, such as failures
+ * and builds back to normal, are delivered before the informative ones when the queue is busy.
+ * Declared from the highest priority.
+ */
+public enum Priority {
+
+    HIGH(100),
+    NORMAL(75),
+    LOW(50);
+
+    /**
+     * Percentage of the queue that can be occupied by notifications of this priority,
+     * so the low priority notifications are rejected first when the queue fills.
+     */
+    private final int queueShare;
+
+    Priority(int queueShare) {
+        this.queueShare = queueShare;
+    }
+
+    /**
+     * Returns how many notifications of this priority may wait in the queue of the given size.
+     */
+    public int getLimit(int queueSize) {
+        return Math.max(1, (int) ((long) queueSize * queueShare / 100));
+    }
+
+    /**
+     * Returns priority of the notification about the completed build.
+     */
+    public static Priority of(Set<WebhookRoutes.Event> events) {
+        if (events.contains(WebhookRoutes.Event.FAILURE)
+                || events.contains(WebhookRoutes.Event.REPEATED_FAILURE)
+                || events.contains(WebhookRoutes.Event.BACK_TO_NORMAL)) {
+            return HIGH;
+        }
+        if (events.contains(WebhookRoutes.Event.STARTED) || events.contains(WebhookRoutes.Event.SUCCESS)) {
+            return LOW;
+        }
+        return NORMAL;
+    }
+
+    /**
+     * Task that is queued with its priority.
+     */
+    public interface Task extends Runnable {
+
+        Priority getPriority();
+
+        /**
+         * Called when the queued task has been removed from the queue to make room for the task of higher priority.
+         */
+        void onDropped();
+    }
+}
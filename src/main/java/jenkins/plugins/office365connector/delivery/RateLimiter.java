@@ -0,0 +1,142 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import jenkins.plugins.office365connector.Webhook;
+import jenkins.util.Timer;
+
+/**
+ * Limits the number of requests sent to every webhook endpoint with token bucket algorithm.
+ * Requests that exceed the limit are not rejected but reserve the future token
+ * so the caller knows how long it should wait. Rate that is not positive turns the limit off.
+ */
+public final class RateLimiter {
+
+    public static final double DEFAULT_PERMITS_PER_SECOND = 2;
+    public static final int DEFAULT_BURST = 10;
+
+    private static final long IDLE_BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final RateLimiter INSTANCE = new RateLimiter();
+
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    RateLimiter() {
+    }
+
+    public static RateLimiter get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Reserves the permit for the request.
+     *
+     * @param url webhook url
+     * @return time in milliseconds that the caller must wait before sending the request, <code>0</code> if it can be sent now
+     */
+    public long reserve(String url) {
+        Webhook.DescriptorImpl global = Webhook.DescriptorImpl.getGlobal();
+        double permitsPerSecond = global == null ? DEFAULT_PERMITS_PER_SECOND : global.getRateLimit();
+        int burst = global == null ? DEFAULT_BURST : global.getRateLimitBurst();
+        return reserve(url, permitsPerSecond, burst, System.currentTimeMillis());
+    }
+
+    long reserve(String url, double permitsPerSecond, int burst, long now) {
+        if (permitsPerSecond <= 0) {
+            return 0;
+        }
+        String endpoint = Endpoints.normalize(url);
+        return buckets.computeIfAbsent(endpoint, key -> new TokenBucket(burst, now))
+                .reserve(permitsPerSecond, burst, now);
+    }
+
+    /**
+     * Returns for every endpoint how long the new request would wait for the permit.
+     *
+     * @return wait time in milliseconds by masked endpoint
+     */
+    public Map<String, Long> getWaitTimes() {
+        long now = System.currentTimeMillis();
+        Map<String, Long> waitTimes = new TreeMap<>();
+        buckets.forEach((endpoint, bucket) -> waitTimes.put(Endpoints.mask(endpoint), bucket.getWaitTime(now)));
+        return waitTimes;
+    }
+
+    /**
+     * Removes buckets of the webhooks that have not been used recently, periodically so the requests
+     * do not pay for scanning all buckets.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void scheduleEviction() {
+        Timer.get().scheduleWithFixedDelay(() -> INSTANCE.evictIdle(System.currentTimeMillis()),
+                IDLE_BUCKET_MILLIS, IDLE_BUCKET_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    void evictIdle(long now) {
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    private static final class TokenBucket {
+
+        /**
+         * Available tokens, negative value means the tokens have been already reserved by waiting requests.
+         */
+        private double tokens;
+        private double permitsPerSecond = DEFAULT_PERMITS_PER_SECOND;
+        private long lastRefill;
+
+        TokenBucket(int burst, long now) {
+            this.tokens = burst;
+            this.lastRefill = now;
+        }
+
+        synchronized long reserve(double permitsPerSecond, int burst, long now) {
+            this.permitsPerSecond = permitsPerSecond;
+            refill(burst, now);
+            tokens -= 1;
+            if (tokens >= 0) {
+                return 0;
+            }
+            return toMillis(-tokens);
+        }
+
+        synchronized long getWaitTime(long now) {
+            double available = tokens + Math.max(0, now - lastRefill) * permitsPerSecond / 1000;
+            return available >= 1 ? 0 : toMillis(1 - available);
+        }
+
+        synchronized boolean isIdle(long now) {
+            return tokens >= 0 && now - lastRefill > IDLE_BUCKET_MILLIS;
+        }
+
+        private void refill(int burst, long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerSecond / 1000);
+                lastRefill = now;
+            }
+        }
+
+        private long toMillis(double missingTokens) {
+            return (long) Math.ceil(missingTokens * 1000 / permitsPerSecond);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import jenkins.util.SystemProperties;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Remembers recently completed notifications, so it can be checked why the notification has not been received
+ * without searching the build logs. Records are kept in the fixed-size ring buffer and the oldest ones
+ * are overwritten, so the memory does not grow with the number of builds.
+ * Adding the record does not take any lock; the reader might miss the record that is overwritten while reading.
+ */
+public final class RecentDeliveries {
+
+    static final int DEFAULT_CAPACITY = SystemProperties.getInteger(RecentDeliveries.class.getName() + ".capacity", 500);
+
+    private static final RecentDeliveries INSTANCE = new RecentDeliveries(DEFAULT_CAPACITY);
+
+    private final AtomicReferenceArray<DeliveryRecord> records;
+    private final AtomicLong next = new AtomicLong();
+
+    RecentDeliveries(int capacity) {
+        this.records = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    public static RecentDeliveries get() {
+        return INSTANCE;
+    }
+
+    public void add(DeliveryRecord record) {
+        long position = next.getAndIncrement();
+        records.set((int) (position % records.length()), record);
+    }
+
+    /**
+     * Returns records from the newest one, limited to the job and endpoint when given.
+     *
+     * @param job      full name of the job, all jobs when empty
+     * @param endpoint webhook url or endpoint presented to the user, all endpoints when empty
+     */
+    public List<DeliveryRecord> getRecords(String job, String endpoint) {
+        boolean anyEndpoint = StringUtils.isBlank(endpoint);
+        String maskedEndpoint = anyEndpoint ? null : Endpoints.mask(endpoint);
+        List<DeliveryRecord> found = new ArrayList<>();
+        long last = next.get();
+        for (long position = last - 1; position >= 0 && position >= last - records.length(); position--) {
+            DeliveryRecord record = records.get((int) (position % records.length()));
+            if (record == null) {
+                continue;
+            }
+            if (StringUtils.isNotBlank(job) && !job.equals(record.getJob())) {
+                continue;
+            }
+            // links on the pages pass the endpoint as it has been recorded, only the url needs masking
+            if (!anyEndpoint && !endpoint.equals(record.getEndpoint()) && !maskedEndpoint.equals(record.getEndpoint())) {
+                continue;
+            }
+            found.add(record);
+        }
+        return found;
+    }
+}
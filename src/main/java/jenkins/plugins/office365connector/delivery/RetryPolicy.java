@@ -0,0 +1,125 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.delivery;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hc.client5.http.utils.DateUtils;
+import org.apache.hc.core5.http.HttpStatus;
+
+/**
+ * Decides if and when the failed delivery should be repeated.
+ * Delay grows exponentially with the number of attempts and is randomized so the retries
+ * from many builds are not sent at the same moment. <code>Retry-After</code> sent by the webhook takes precedence.
+ */
+public class RetryPolicy {
+
+    static final long BASE_DELAY_MILLIS = 1000;
+    static final long MAX_DELAY_MILLIS = 60_000;
+
+    private final int maxAttempts;
+    private final long maxElapsedMillis;
+
+    /**
+     * @param maxAttempts      maximum number of attempts, including the first one
+     * @param maxElapsedMillis maximum time after which the delivery is abandoned
+     */
+    public RetryPolicy(int maxAttempts, long maxElapsedMillis) {
+        this.maxAttempts = maxAttempts;
+        this.maxElapsedMillis = maxElapsedMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getMaxElapsedMillis() {
+        return maxElapsedMillis;
+    }
+
+    /**
+     * Checks if repeating the request may succeed. Connection problems, throttling and temporary
+     * gateway errors are retryable, any other rejection such as malformed payload or removed webhook is permanent.
+     */
+    public boolean isRetryable(DeliveryResult result) {
+        if (result.getFailure() != null) {
+            // malformed URL does not get better with the next attempt
+            return !(result.getFailure() instanceof IllegalArgumentException);
+        }
+        switch (result.getStatusCode()) {
+            case HttpStatus.SC_TOO_MANY_REQUESTS:
+            case HttpStatus.SC_BAD_GATEWAY:
+            case HttpStatus.SC_SERVICE_UNAVAILABLE:
+            case HttpStatus.SC_GATEWAY_TIMEOUT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Calculates how long to wait before next attempt.
+     *
+     * @param attempt number of attempts made so far, starting from 1
+     * @param result  outcome of the last attempt
+     * @return delay in milliseconds
+     */
+    public long nextDelay(int attempt, DeliveryResult result) {
+        if (result.getRetryAfterMillis() > 0) {
+            return result.getRetryAfterMillis();
+        }
+        // equal jitter: half of the delay is fixed so retries do not fire immediately
+        long exponential = Math.min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << Math.min(attempt - 1, 16));
+        long half = exponential / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    /**
+     * Checks if another attempt is allowed.
+     *
+     * @param attempt        number of attempts made so far
+     * @param elapsedMillis  time since the first attempt
+     * @param delayMillis    delay before the next attempt
+     */
+    public boolean canRetry(int attempt, long elapsedMillis, long delayMillis) {
+        return attempt < maxAttempts && elapsedMillis + delayMillis <= maxElapsedMillis;
+    }
+
+    /**
+     * Parses value of the <code>Retry-After</code> header which is either number of seconds or http date.
+     *
+     * @return delay in milliseconds or <code>0</code> when the value is missing or invalid
+     */
+    public static long parseRetryAfter(String value) {
+        if (StringUtils.isBlank(value)) {
+            return 0;
+        }
+        String trimmed = value.trim();
+        if (StringUtils.isNumeric(trimmed)) {
+            try {
+                return Duration.ofSeconds(Long.parseLong(trimmed)).toMillis();
+            } catch (NumberFormatException | ArithmeticException e) {
+                return 0;
+            }
+        }
+        Instant date = DateUtils.parseStandardDate(trimmed);
+        if (date == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(Instant.now(), date).toMillis());
+    }
+}
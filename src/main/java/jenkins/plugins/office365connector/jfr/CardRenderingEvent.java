@@ -0,0 +1,39 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Building of the card for the webhook.
+ */
+@Name("jenkins.plugins.office365connector.CardRendering")
+@Label("Office 365 Card Rendering")
+@Description("Building of the card sent to the webhook")
+public class CardRenderingEvent extends NotificationEvent {
+
+    @Label("Webhook")
+    private String webhook;
+
+    @Label("Event")
+    private String event;
+
+    public CardRenderingEvent(String job, String webhook, String event) {
+        super(job);
+        this.webhook = webhook;
+        this.event = event;
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Single attempt to send the notification, from sending the request until the response is received.
+ */
+@Name("jenkins.plugins.office365connector.DeliveryAttempt")
+@Label("Office 365 Delivery Attempt")
+@Description("HTTP request that delivers the notification to the webhook")
+public class DeliveryAttemptEvent extends NotificationEvent {
+
+    @Label("Endpoint")
+    private String endpoint;
+
+    @Label("Attempt")
+    private int attempt;
+
+    @Label("Payload Size")
+    @DataAmount
+    private long bytes;
+
+    @Label("Status Code")
+    private int statusCode;
+
+    @Label("Successful")
+    private boolean successful;
+
+    public DeliveryAttemptEvent(String job, String endpoint, int attempt, long bytes) {
+        super(job);
+        this.endpoint = endpoint;
+        this.attempt = attempt;
+        this.bytes = bytes;
+    }
+
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public void setSuccessful(boolean successful) {
+        this.successful = successful;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Collection of the facts presented in the card.
+ */
+@Name("jenkins.plugins.office365connector.FactCollection")
+@Label("Office 365 Fact Collection")
+@Description("Collection of the facts, including culprits, developers and user facts")
+public class FactCollectionEvent extends NotificationEvent {
+
+    @Label("Facts")
+    private int facts;
+
+    public FactCollectionEvent(String job) {
+        super(job);
+    }
+
+    public void setFacts(int facts) {
+        this.facts = facts;
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.jfr;
+
+import hudson.model.Job;
+import hudson.model.Run;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the Java Flight Recorder events emitted while the notification is prepared and delivered,
+ * so the time spent by the plugin is visible in the recording instead of anonymous macro, Gson or HTTP frames.
+ */
+@Category({"Jenkins", "Office 365 Connector"})
+@StackTrace(false)
+public abstract class NotificationEvent extends Event {
+
+    // not private, Flight Recorder does not record private fields of the super class
+    @Label("Job")
+    protected String job;
+
+    protected NotificationEvent(String job) {
+        this.job = job;
+    }
+
+    /**
+     * Returns full name of the job of the run or <code>null</code> when the run has no job.
+     */
+    public static String jobName(Run run) {
+        Job job = run.getParent();
+        return job == null ? null : job.getFullName();
+    }
+}
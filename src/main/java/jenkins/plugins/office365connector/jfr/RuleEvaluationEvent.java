@@ -0,0 +1,49 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evaluation of the macros that decide if the webhook should be notified.
+ */
+@Name("jenkins.plugins.office365connector.RuleEvaluation")
+@Label("Office 365 Rule Evaluation")
+@Description("Evaluation of the webhook macros")
+public class RuleEvaluationEvent extends NotificationEvent {
+
+    @Label("Webhook")
+    private String webhook;
+
+    @Label("Macros")
+    private int macros;
+
+    @Label("Matched")
+    private boolean matched;
+
+    public RuleEvaluationEvent(String job, String webhook) {
+        super(job);
+        this.webhook = webhook;
+    }
+
+    public void setMacros(int macros) {
+        this.macros = macros;
+    }
+
+    public void setMatched(boolean matched) {
+        this.matched = matched;
+    }
+}
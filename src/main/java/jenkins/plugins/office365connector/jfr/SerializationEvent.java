@@ -0,0 +1,44 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Serialization of the card into the payload.
+ */
+@Name("jenkins.plugins.office365connector.Serialization")
+@Label("Office 365 Card Serialization")
+@Description("Serialization of the card into the JSON payload")
+public class SerializationEvent extends NotificationEvent {
+
+    @Label("Webhook")
+    private String webhook;
+
+    @Label("Payload Size")
+    @DataAmount
+    private long bytes;
+
+    public SerializationEvent(String job, String webhook) {
+        super(job);
+        this.webhook = webhook;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+}
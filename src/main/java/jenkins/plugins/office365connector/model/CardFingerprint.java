@@ -0,0 +1,80 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCard;
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCardElement;
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCardFact;
+import jenkins.plugins.office365connector.model.adaptivecard.Column;
+import jenkins.plugins.office365connector.model.adaptivecard.ColumnSet;
+import jenkins.plugins.office365connector.model.adaptivecard.FactSet;
+import jenkins.plugins.office365connector.model.adaptivecard.TextBlock;
+
+/**
+ * Collects fields of the card that do not depend on the build, so the same card sent for the following builds
+ * can be recognized. Summary, subtitle and actions are not included as they refer to the build name or its URL.
+ */
+public final class CardFingerprint {
+
+    private CardFingerprint() {
+    }
+
+    /**
+     * Returns fields of the card that describe its content: color, title and facts.
+     */
+    public static List<String> of(Card card) {
+        List<String> fields = new ArrayList<>();
+        if (card instanceof AdaptiveCard) {
+            collect((AdaptiveCard) card, fields);
+        } else {
+            fields.add(card.getThemeColor());
+            if (card.getSections() != null) {
+                for (Section section : card.getSections()) {
+                    fields.add(section.getActivityTitle());
+                    if (section.getFacts() != null) {
+                        for (Fact fact : section.getFacts()) {
+                            fields.add(fact.getName());
+                            fields.add(fact.getValue());
+                        }
+                    }
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static void collect(AdaptiveCard card, List<String> fields) {
+        for (AdaptiveCardElement element : card.getBody()) {
+            if (element instanceof TextBlock) {
+                // summary which color reflects the result of the build
+                fields.add(((TextBlock) element).getColor());
+            } else if (element instanceof ColumnSet) {
+                for (Column column : ((ColumnSet) element).getColumns()) {
+                    // first item is the title, the next one is the subtitle with the build name
+                    if (!column.getItems().isEmpty() && column.getItems().get(0) instanceof TextBlock) {
+                        fields.add(((TextBlock) column.getItems().get(0)).getText());
+                    }
+                }
+            } else if (element instanceof FactSet) {
+                for (AdaptiveCardFact fact : ((FactSet) element).getFacts()) {
+                    fields.add(fact.getTitle());
+                    fields.add(fact.getValue());
+                }
+            }
+        }
+    }
+}
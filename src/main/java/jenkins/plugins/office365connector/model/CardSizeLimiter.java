@@ -0,0 +1,168 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCard;
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCardElement;
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCardFact;
+import jenkins.plugins.office365connector.model.adaptivecard.FactSet;
+import jenkins.plugins.office365connector.model.messagecard.MessageCard;
+
+/**
+ * Reduces facts of the card which payload is bigger than the webhook accepts, so the card is not rejected.
+ * Facts are reduced in the fixed order until the payload fits: long values are truncated, facts over the limit
+ * are collapsed into the single fact and finally facts are dropped starting from the last one.
+ * Required facts and the fact that counts collapsed facts are never collapsed nor dropped.
+ */
+public final class CardSizeLimiter {
+
+    private static final Logger LOGGER = Logger.getLogger(CardSizeLimiter.class.getName());
+
+    /**
+     * Connectors reject payloads bigger than 28 KB.
+     */
+    public static final int DEFAULT_MAX_SIZE = 28 * 1024;
+
+    static final int MAX_VALUE_LENGTH = 1000;
+    static final int MAX_VISIBLE_FACTS = 10;
+
+    static final String TRUNCATION_MARK = "...";
+    static final String NAME_MORE_FACTS = "More";
+
+    private CardSizeLimiter() {
+    }
+
+    /**
+     * Reduces facts of the card when its payload is bigger than given size.
+     *
+     * @param card          card to reduce
+     * @param maxSize       maximum size of the payload in bytes
+     * @param requiredFacts names of the facts that must be presented
+     * @return the same card, reduced if needed
+     */
+    public static Card fit(Card card, int maxSize, Set<String> requiredFacts) {
+        if (CardWriter.size(card) <= maxSize) {
+            return card;
+        }
+        List<Fact> facts = getFacts(card);
+        if (facts != null) {
+            reduce(card, facts, maxSize, requiredFacts);
+        }
+        long size = CardWriter.size(card);
+        if (size > maxSize) {
+            LOGGER.log(Level.WARNING, "Card has {0} bytes after reducing its facts and exceeds {1} bytes, "
+                    + "webhook may reject it", new Object[]{size, maxSize});
+        }
+        return card;
+    }
+
+    private static void reduce(Card card, List<Fact> facts, int maxSize, Set<String> requiredFacts) {
+        facts = truncate(facts);
+        setFacts(card, facts);
+        if (CardWriter.size(card) <= maxSize) {
+            return;
+        }
+
+        List<Fact> collapsed = collapse(facts, requiredFacts);
+        // fact that counts the collapsed facts is added as the last one
+        Fact more = collapsed != facts ? collapsed.get(collapsed.size() - 1) : null;
+        facts = collapsed;
+        setFacts(card, facts);
+
+        for (int i = facts.size() - 1; i >= 0 && CardWriter.size(card) > maxSize; i--) {
+            Fact fact = facts.get(i);
+            if (fact != more && !requiredFacts.contains(fact.getName())) {
+                facts.remove(i);
+                setFacts(card, facts);
+            }
+        }
+    }
+
+    private static List<Fact> truncate(List<Fact> facts) {
+        List<Fact> truncated = new ArrayList<>(facts.size());
+        for (Fact fact : facts) {
+            String value = fact.getValue();
+            if (value != null && value.length() > MAX_VALUE_LENGTH) {
+                int end = MAX_VALUE_LENGTH;
+                // do not split the character that is encoded as surrogate pair
+                if (Character.isHighSurrogate(value.charAt(end - 1))) {
+                    end--;
+                }
+                truncated.add(new Fact(fact.getName(), value.substring(0, end) + TRUNCATION_MARK));
+            } else {
+                truncated.add(fact);
+            }
+        }
+        return truncated;
+    }
+
+    private static List<Fact> collapse(List<Fact> facts, Set<String> requiredFacts) {
+        if (facts.size() <= MAX_VISIBLE_FACTS) {
+            return facts;
+        }
+        List<Fact> visible = new ArrayList<>(MAX_VISIBLE_FACTS);
+        int hidden = 0;
+        for (Fact fact : facts) {
+            if (visible.size() < MAX_VISIBLE_FACTS - 1 || requiredFacts.contains(fact.getName())) {
+                visible.add(fact);
+            } else {
+                hidden++;
+            }
+        }
+        visible.add(new Fact(NAME_MORE_FACTS, String.format("%d more facts are not shown", hidden)));
+        return visible;
+    }
+
+    private static List<Fact> getFacts(Card card) {
+        if (card instanceof MessageCard) {
+            List<Section> sections = card.getSections();
+            if (sections != null && !sections.isEmpty() && sections.get(0).getFacts() != null) {
+                return new ArrayList<>(sections.get(0).getFacts());
+            }
+        } else if (card instanceof AdaptiveCard) {
+            FactSet factSet = getFactSet((AdaptiveCard) card);
+            if (factSet != null) {
+                List<Fact> facts = new ArrayList<>();
+                for (AdaptiveCardFact fact : factSet.getFacts()) {
+                    facts.add(new Fact(fact.getTitle(), fact.getValue()));
+                }
+                return facts;
+            }
+        }
+        return null;
+    }
+
+    private static void setFacts(Card card, List<Fact> facts) {
+        if (card instanceof MessageCard) {
+            card.getSections().get(0).setFacts(new ArrayList<>(facts));
+        } else {
+            getFactSet((AdaptiveCard) card).setFacts(facts);
+        }
+    }
+
+    private static FactSet getFactSet(AdaptiveCard card) {
+        for (AdaptiveCardElement element : card.getBody()) {
+            if (element instanceof FactSet) {
+                return (FactSet) element;
+            }
+        }
+        return null;
+    }
+}
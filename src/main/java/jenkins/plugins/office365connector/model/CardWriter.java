@@ -0,0 +1,155 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.model;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCard;
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCardAction;
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCardWriter;
+import jenkins.plugins.office365connector.model.messagecard.MessageCard;
+import jenkins.plugins.office365connector.model.messagecard.MessageCardWriter;
+import jenkins.plugins.office365connector.model.messagecard.PotentialAction;
+
+/**
+ * Serializes cards into compact JSON payload expected by the webhooks. Known cards are streamed by
+ * dedicated writers into the buffer that is reused by the thread, so neither reflection nor pretty printing
+ * is involved. Output is HTML safe and skips <code>null</code> properties, the same as the Gson defaults.
+ */
+public final class CardWriter {
+
+    /**
+     * Buffers bigger than this are not kept by the thread after serialization.
+     */
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringWriter> BUFFER = ThreadLocal.withInitial(StringWriter::new);
+
+    /**
+     * Serializes elements that are not known to the dedicated writers.
+     */
+    private static final Gson GSON = new Gson();
+
+    private CardWriter() {
+    }
+
+    public static String toJson(Card card) {
+        StringWriter buffer = BUFFER.get();
+        buffer.getBuffer().setLength(0);
+        try {
+            JsonWriter writer = newWriter(buffer);
+            write(writer, card);
+            writer.flush();
+            return buffer.toString();
+        } catch (IOException e) {
+            // not expected as the data is written to memory
+            throw new UncheckedIOException(e);
+        } finally {
+            if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns number of bytes of the UTF-8 encoded payload, the payload itself is not kept in memory.
+     */
+    public static long size(Card card) {
+        Utf8Counter counter = new Utf8Counter();
+        try {
+            JsonWriter writer = newWriter(counter);
+            write(writer, card);
+            writer.flush();
+            return counter.bytes;
+        } catch (IOException e) {
+            // not expected as the data is not written anywhere
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JsonWriter newWriter(Writer out) {
+        JsonWriter writer = new JsonWriter(out);
+        writer.setHtmlSafe(true);
+        writer.setSerializeNulls(false);
+        return writer;
+    }
+
+    public static void write(JsonWriter writer, Card card) throws IOException {
+        if (card instanceof MessageCard) {
+            MessageCardWriter.write(writer, (MessageCard) card);
+        } else if (card instanceof AdaptiveCard) {
+            AdaptiveCardWriter.write(writer, (AdaptiveCard) card);
+        } else {
+            writeUnknown(writer, card == null ? null : card.toPaylod());
+        }
+    }
+
+    public static void writeAction(JsonWriter writer, CardAction action) throws IOException {
+        if (action instanceof PotentialAction) {
+            MessageCardWriter.writeAction(writer, (PotentialAction) action);
+        } else if (action instanceof AdaptiveCardAction) {
+            AdaptiveCardWriter.writeAction(writer, (AdaptiveCardAction) action);
+        } else {
+            writeUnknown(writer, action);
+        }
+    }
+
+    public static void writeUnknown(JsonWriter writer, Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+            return;
+        }
+        GSON.toJson(value, value.getClass(), writer);
+    }
+
+    /**
+     * Counts bytes that the written characters take when encoded in UTF-8.
+     */
+    private static final class Utf8Counter extends Writer {
+
+        private long bytes;
+
+        @Override
+        public void write(int c) {
+            bytes += Character.isSurrogate((char) c) ? 2 : c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(text.charAt(i));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.model;
+
+import hudson.model.Result;
+
+/**
+ * Completed build presented in the digest that summarizes many builds.
+ */
+public class DigestEntry {
+
+    private final String jobName;
+    private final String runName;
+    private final String status;
+    private final Result result;
+    private final String url;
+
+    public DigestEntry(String jobName, String runName, String status, Result result, String url) {
+        this.jobName = jobName;
+        this.runName = runName;
+        this.status = status;
+        this.result = result;
+        this.url = url;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getRunName() {
+        return runName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+}
@@ -48,6 +48,10 @@ public class Section {
         return facts;
     }
 
+    public void setFacts(List<Fact> facts) {
+        this.facts = facts;
+    }
+
     public String getActivitySubtitle() {
         return activitySubtitle;
     }
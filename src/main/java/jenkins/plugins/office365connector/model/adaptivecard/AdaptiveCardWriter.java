@@ -0,0 +1,132 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.model.adaptivecard;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.google.gson.stream.JsonWriter;
+import jenkins.plugins.office365connector.model.CardAction;
+import jenkins.plugins.office365connector.model.CardWriter;
+
+/**
+ * Writes {@link AdaptiveCard} wrapped in the message {@link Payload} as JSON without reflection. Properties are written
+ * in the order of the fields of the model so the payload is the same as the one created by Gson.
+ */
+public final class AdaptiveCardWriter {
+
+    private AdaptiveCardWriter() {
+    }
+
+    public static void write(JsonWriter writer, AdaptiveCard card) throws IOException {
+        Payload payload = (Payload) card.toPaylod();
+        writer.beginObject();
+        writer.name("type").value(payload.getType());
+        writer.name("attachments").beginArray();
+        for (Attachment attachment : payload.getAttachments()) {
+            writer.beginObject();
+            writer.name("contentType").value(attachment.getContentType());
+            writer.name("content");
+            writeCard(writer, attachment.getContent());
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    private static void writeCard(JsonWriter writer, AdaptiveCard card) throws IOException {
+        writer.beginObject();
+        writer.name("type").value(card.getType());
+        writer.name("$schema").value(card.getSchema());
+        writer.name("version").value(card.getVersion());
+        writer.name("msTeams").beginObject();
+        writer.name("width").value(card.getMsTeams().getWidth());
+        writer.endObject();
+        writer.name("body");
+        writeElements(writer, card.getBody());
+        List<CardAction> actions = card.getActions();
+        if (actions != null) {
+            writer.name("actions").beginArray();
+            for (CardAction action : actions) {
+                CardWriter.writeAction(writer, action);
+            }
+            writer.endArray();
+        }
+        writer.endObject();
+    }
+
+    private static void writeElements(JsonWriter writer, List<? extends AdaptiveCardElement> elements) throws IOException {
+        if (elements == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginArray();
+        for (AdaptiveCardElement element : elements) {
+            writeElement(writer, element);
+        }
+        writer.endArray();
+    }
+
+    private static void writeElement(JsonWriter writer, AdaptiveCardElement element) throws IOException {
+        if (element instanceof TextBlock) {
+            TextBlock textBlock = (TextBlock) element;
+            writer.beginObject();
+            writer.name("text").value(textBlock.getText());
+            writer.name("weight").value(textBlock.getWeight());
+            writer.name("size").value(textBlock.getSize());
+            writer.name("color").value(textBlock.getColor());
+            writer.name("type").value(textBlock.getType());
+            writer.name("wrap").value(textBlock.isWrap());
+            writer.endObject();
+        } else if (element instanceof ColumnSet) {
+            ColumnSet columnSet = (ColumnSet) element;
+            writer.beginObject();
+            writer.name("type").value(columnSet.getType());
+            writer.name("columns");
+            writeElements(writer, columnSet.getColumns());
+            writer.name("width").value(columnSet.getWidth());
+            writer.endObject();
+        } else if (element instanceof Column) {
+            Column column = (Column) element;
+            writer.beginObject();
+            writer.name("type").value(column.getType());
+            writer.name("items");
+            writeElements(writer, column.getItems());
+            writer.endObject();
+        } else if (element instanceof FactSet) {
+            FactSet factSet = (FactSet) element;
+            writer.beginObject();
+            writer.name("facts").beginArray();
+            for (AdaptiveCardFact fact : factSet.getFacts()) {
+                writer.beginObject();
+                writer.name("title").value(fact.getTitle());
+                writer.name("value").value(fact.getValue());
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.name("type").value(factSet.getType());
+            writer.endObject();
+        } else {
+            CardWriter.writeUnknown(writer, element);
+        }
+    }
+
+    public static void writeAction(JsonWriter writer, AdaptiveCardAction action) throws IOException {
+        writer.beginObject();
+        writer.name("type").value(action.getType());
+        writer.name("title").value(action.getTitle());
+        writer.name("url").value(action.getUrl());
+        writer.endObject();
+    }
+}
@@ -26,6 +26,6 @@ public class ColumnSet implements AdaptiveCardElement {
 
     @Override
     public String getType() {
-        return "";
+        return type;
     }
 }
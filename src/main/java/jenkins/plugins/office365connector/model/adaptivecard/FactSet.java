@@ -8,18 +8,22 @@ import jenkins.plugins.office365connector.model.Fact;
 
 public class FactSet implements AdaptiveCardElement {
 
-    private final List<AdaptiveCardFact> facts;
+    private List<AdaptiveCardFact> facts;
     @SuppressFBWarnings(value = "SS_SHOULD_BE_STATIC")
     private final String type = "FactSet";
 
     public FactSet(List<Fact> facts) {
-        this.facts = facts.stream().map(f -> new AdaptiveCardFact(f.getName(),f.getValue())).collect(Collectors.toList());
+        setFacts(facts);
     }
 
     public List<AdaptiveCardFact> getFacts() {
         return facts;
     }
 
+    public void setFacts(List<Fact> facts) {
+        this.facts = facts.stream().map(f -> new AdaptiveCardFact(f.getName(),f.getValue())).collect(Collectors.toList());
+    }
+
     @Override
     public String getType() {
         return type;
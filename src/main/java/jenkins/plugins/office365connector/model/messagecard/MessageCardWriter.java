@@ -0,0 +1,101 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.office365connector.model.messagecard;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.google.gson.stream.JsonWriter;
+import jenkins.plugins.office365connector.model.CardAction;
+import jenkins.plugins.office365connector.model.CardWriter;
+import jenkins.plugins.office365connector.model.Fact;
+import jenkins.plugins.office365connector.model.Section;
+
+/**
+ * Writes {@link MessageCard} as JSON without reflection. Properties are written in the order
+ * of the fields of the model so the payload is the same as the one created by Gson.
+ */
+public final class MessageCardWriter {
+
+    private MessageCardWriter() {
+    }
+
+    public static void write(JsonWriter writer, MessageCard card) throws IOException {
+        writer.beginObject();
+        writer.name("@context").value(card.getContext());
+        writer.name("@type").value(card.getType());
+        writer.name("summary").value(card.getSummary());
+        writer.name("themeColor").value(card.getThemeColor());
+        List<Section> sections = card.getSections();
+        if (sections != null) {
+            writer.name("sections").beginArray();
+            for (Section section : sections) {
+                writeSection(writer, section);
+            }
+            writer.endArray();
+        }
+        List<CardAction> actions = card.getAction();
+        if (actions != null) {
+            writer.name("potentialAction").beginArray();
+            for (CardAction action : actions) {
+                CardWriter.writeAction(writer, action);
+            }
+            writer.endArray();
+        }
+        writer.endObject();
+    }
+
+    private static void writeSection(JsonWriter writer, Section section) throws IOException {
+        if (section == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginObject();
+        writer.name("markdown").value(section.getMarkdown());
+        List<Fact> facts = section.getFacts();
+        if (facts != null) {
+            writer.name("facts").beginArray();
+            for (Fact fact : facts) {
+                if (fact == null) {
+                    writer.nullValue();
+                    continue;
+                }
+                writer.beginObject();
+                writer.name("name").value(fact.getName());
+                writer.name("value").value(fact.getValue());
+                writer.endObject();
+            }
+            writer.endArray();
+        }
+        writer.name("activityTitle").value(section.getActivityTitle());
+        writer.name("activitySubtitle").value(section.getActivitySubtitle());
+        writer.endObject();
+    }
+
+    public static void writeAction(JsonWriter writer, PotentialAction action) throws IOException {
+        writer.beginObject();
+        writer.name("@context").value(action.getContext());
+        writer.name("@type").value(action.getType());
+        writer.name("name").value(action.getName());
+        List<String> targets = action.getTarget();
+        if (targets != null) {
+            writer.name("target").beginArray();
+            for (String target : targets) {
+                writer.value(target);
+            }
+            writer.endArray();
+        }
+        writer.endObject();
+    }
+}
@@ -1,11 +1,14 @@
 package jenkins.plugins.office365connector.workflow;
 
 import hudson.Extension;
+import hudson.model.Job;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.model.listeners.RunListener;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import jenkins.plugins.office365connector.Office365ConnectorWebhookNotifier;
+import jenkins.plugins.office365connector.ResultStreak;
+import jenkins.plugins.office365connector.WebhookJobProperty;
 
 /**
  * Office365ConnectorBuildListener {@link RunListener}.
@@ -42,6 +45,21 @@ public class Office365ConnectorBuildListener extends RunListener<Run> {
     @Override
     public void onCompleted(Run run, @NonNull TaskListener listener) {
         Office365ConnectorWebhookNotifier notifier = new Office365ConnectorWebhookNotifier(run, listener);
-        notifier.sendBuildCompletedNotification();
+        // notification is prepared and sent asynchronously so the completion of the build is not delayed
+        notifier.submitBuildCompletedNotification();
+
+        // updated once the snapshot is taken so the notification compares with the builds completed before
+        if (hasWebhooks(run)) {
+            ResultStreak.update(run);
+        }
+    }
+
+    private static boolean hasWebhooks(Run run) {
+        Job job = run.getParent();
+        if (job == null) {
+            return false;
+        }
+        WebhookJobProperty property = (WebhookJobProperty) job.getProperty(WebhookJobProperty.class);
+        return property != null && property.getWebhooks() != null && !property.getWebhooks().isEmpty();
     }
 }
@@ -0,0 +1,93 @@
+package jenkins.plugins.office365connector;
+
+import hudson.model.AbstractBuild;
+import hudson.model.Result;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BuildContextTest {
+
+    @Test
+    void getPreviousResult_OnManyCalls_LoadsPreviousBuildOnce() {
+
+        // given
+        AbstractBuild run = mock(AbstractBuild.class);
+        AbstractBuild previousBuild = mock(AbstractBuild.class);
+        when(previousBuild.getResult()).thenReturn(Result.UNSTABLE);
+        when(run.getPreviousBuild()).thenReturn(previousBuild);
+        BuildContext context = new BuildContext(run);
+
+        // when
+        context.getPreviousResult();
+        Result previousResult = context.getPreviousResult();
+
+        // then
+        assertThat(previousResult, is(Result.UNSTABLE));
+        verify(run, times(1)).getPreviousBuild();
+    }
+
+    @Test
+    void getLastNotAbortedResult_OnAbortedPreviousBuild_SkipsAbortedBuilds() {
+
+        // given
+        AbstractBuild run = mock(AbstractBuild.class);
+        AbstractBuild abortedBuild = mock(AbstractBuild.class);
+        AbstractBuild failedBuild = mock(AbstractBuild.class);
+        when(abortedBuild.getResult()).thenReturn(Result.ABORTED);
+        when(abortedBuild.getPreviousCompletedBuild()).thenReturn(failedBuild);
+        when(failedBuild.getResult()).thenReturn(Result.FAILURE);
+        when(run.getPreviousBuild()).thenReturn(abortedBuild);
+        BuildContext context = new BuildContext(run);
+
+        // when
+        Result lastNotAbortedResult = context.getLastNotAbortedResult();
+
+        // then
+        assertThat(lastNotAbortedResult, is(Result.FAILURE));
+    }
+
+    @Test
+    void getCulprits_OnManyCalls_ComputesCulpritsOnce() {
+
+        // given
+        AbstractBuild run = mock(AbstractBuild.class);
+        BuildContext context = new BuildContext(run);
+
+        // when
+        context.getCulprits();
+        Culprits culprits = context.getCulprits();
+
+        // then
+        assertThat(culprits.getNames(), is(empty()));
+        verify(run, times(1)).getCulprits();
+    }
+
+    @Test
+    void getFailingSinceBuild_OnFailedBuilds_ReturnsFirstFailedBuild() {
+
+        // given
+        AbstractBuild run = mock(AbstractBuild.class);
+        AbstractBuild lastNotFailedBuild = mock(AbstractBuild.class);
+        AbstractBuild firstFailedBuild = mock(AbstractBuild.class);
+        when(firstFailedBuild.getNumber()).thenReturn(7);
+        when(lastNotFailedBuild.getNextBuild()).thenReturn(firstFailedBuild);
+        when(run.getPreviousNotFailedBuild()).thenReturn(lastNotFailedBuild);
+        BuildContext context = new BuildContext(run);
+
+        // when
+        context.getFailingSinceBuild();
+        Integer failingSinceBuild = context.getFailingSinceBuild();
+
+        // then
+        assertThat(failingSinceBuild, equalTo(7));
+        verify(run, times(1)).getPreviousNotFailedBuild();
+    }
+}
@@ -0,0 +1,99 @@
+package jenkins.plugins.office365connector;
+
+import hudson.model.AbstractBuild;
+import hudson.model.Result;
+import hudson.model.User;
+import jenkins.plugins.office365connector.helpers.AffectedFileBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CulpritsTest {
+
+    @Test
+    void of_WithoutLimits_ReturnsCulpritsOfRun() {
+
+        // given
+        AbstractBuild run = mock(AbstractBuild.class);
+        User user = AffectedFileBuilder.mockUser("Peter");
+        when(user.getFullName()).thenReturn("Peter");
+        when(run.getCulprits()).thenReturn(Set.of(user));
+
+        // when
+        Culprits culprits = Culprits.of(run, 0, 0);
+
+        // then
+        assertThat(culprits.getNames(), contains("Peter"));
+        assertThat(culprits.isPartial(), is(false));
+    }
+
+    @Test
+    void of_OnFailingBuilds_CollectsAuthorsOfPreviousBuilds() {
+
+        // given
+        AbstractBuild first = mockBuild("Ann", Result.SUCCESS, null);
+        AbstractBuild second = mockBuild("George", Result.FAILURE, first);
+        AbstractBuild run = mockBuild("Peter", Result.FAILURE, second);
+
+        // when
+        Culprits culprits = Culprits.of(run, 10, 0);
+
+        // then
+        assertThat(culprits.getNames(), contains("Peter", "George"));
+        assertThat(culprits.isPartial(), is(false));
+        verify(run, never()).getCulprits();
+    }
+
+    @Test
+    void of_OnMaxDepth_ReturnsPartialCulprits() {
+
+        // given
+        AbstractBuild first = mockBuild("Ann", Result.FAILURE, null);
+        AbstractBuild second = mockBuild("George", Result.FAILURE, first);
+        AbstractBuild run = mockBuild("Peter", Result.FAILURE, second);
+
+        // when
+        Culprits culprits = Culprits.of(run, 1, 0);
+
+        // then
+        assertThat(culprits.getNames(), contains("Peter", "George"));
+        assertThat(culprits.isPartial(), is(true));
+        verify(first, never()).getChangeSets();
+    }
+
+    @Test
+    void of_OnUsedTimeBudget_ReturnsPartialCulprits() {
+
+        // given
+        AbstractBuild previous = mockBuild("George", Result.FAILURE, null);
+        AbstractBuild run = mockBuild("Peter", Result.FAILURE, null);
+        when(run.getPreviousCompletedBuild()).thenAnswer(invocation -> {
+            // loading of the previous build takes longer than the budget
+            Thread.sleep(10);
+            return previous;
+        });
+
+        // when
+        Culprits culprits = Culprits.of(run, 0, 1);
+
+        // then
+        assertThat(culprits.getNames(), contains("Peter"));
+        assertThat(culprits.isPartial(), is(true));
+    }
+
+    private static AbstractBuild mockBuild(String author, Result result, AbstractBuild previous) {
+        AbstractBuild build = mock(AbstractBuild.class);
+        when(build.getResult()).thenReturn(result);
+        when(build.getPreviousCompletedBuild()).thenReturn(previous);
+        when(build.getChangeSets()).thenReturn(new AffectedFileBuilder().singleChangeLog(build, author));
+        return build;
+    }
+}
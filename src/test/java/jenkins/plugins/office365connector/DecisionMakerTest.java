@@ -18,8 +18,12 @@ import org.mockito.MockedStatic;
 
 import java.io.File;
 import java.util.List;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -583,6 +587,45 @@ class DecisionMakerTest extends AbstractTest {
         return buildSampleDecisionMaker(null);
     }
 
+    @Test
+    void getCompletedEvents_OnSuccessAfterFailure_ReturnsBackToNormal() {
+
+        // given
+        DecisionMaker decisionMaker = buildSampleDecisionMaker(Result.SUCCESS, Result.FAILURE);
+
+        // when
+        Set<WebhookRoutes.Event> events = decisionMaker.getCompletedEvents();
+
+        // then
+        assertThat(events, containsInAnyOrder(WebhookRoutes.Event.SUCCESS, WebhookRoutes.Event.BACK_TO_NORMAL));
+    }
+
+    @Test
+    void getCompletedEvents_OnFailureAfterFailure_ReturnsRepeatedFailure() {
+
+        // given
+        DecisionMaker decisionMaker = buildSampleDecisionMaker(Result.FAILURE, Result.FAILURE);
+
+        // when
+        Set<WebhookRoutes.Event> events = decisionMaker.getCompletedEvents();
+
+        // then
+        assertThat(events, contains(WebhookRoutes.Event.REPEATED_FAILURE));
+    }
+
+    @Test
+    void getCompletedEvents_OnUndefinedResult_ReturnsNoEvent() {
+
+        // given
+        DecisionMaker decisionMaker = buildSampleDecisionMaker(null);
+
+        // when
+        Set<WebhookRoutes.Event> events = decisionMaker.getCompletedEvents();
+
+        // then
+        assertThat(events, empty());
+    }
+
     private static DecisionMaker buildSampleDecisionMaker(Result result) {
         return buildSampleDecisionMaker(result, null);
     }
@@ -0,0 +1,107 @@
+package jenkins.plugins.office365connector;
+
+import hudson.model.User;
+import hudson.scm.ChangeLogSet;
+import jenkins.plugins.office365connector.helpers.AffectedFileBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DeveloperAggregatorTest {
+
+    @Test
+    void summarize_SortsByNumberOfCommits() {
+
+        // given
+        User peter = mockUser("peter", "Peter");
+        User ann = mockUser("ann", "Ann");
+        DeveloperAggregator aggregator = new DeveloperAggregator(10);
+
+        // when
+        aggregator.add(mockEntry(ann));
+        aggregator.add(mockEntry(peter));
+        aggregator.add(mockEntry(peter));
+
+        // then
+        assertThat(aggregator.summarize(), equalTo("Peter, Ann"));
+    }
+
+    @Test
+    void summarize_OnSameAuthor_CountsAuthorOnce() {
+
+        // given
+        DeveloperAggregator aggregator = new DeveloperAggregator(10);
+
+        // when
+        aggregator.add(mockEntry(mockUser("george", "George Great")));
+        aggregator.add(mockEntry(mockUser("george", "George Great")));
+
+        // then
+        assertThat(aggregator.summarize(), equalTo("George Great"));
+    }
+
+    @Test
+    void summarize_OnManyAuthors_CountsOthers() {
+
+        // given
+        DeveloperAggregator aggregator = new DeveloperAggregator(2);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            aggregator.add(mockEntry(mockUser("user" + i, "User " + i)));
+        }
+
+        // then
+        assertThat(aggregator.summarize(), equalTo("User 0, User 1 and 3 others"));
+    }
+
+    @Test
+    void summarize_OnSingleOther_CountsOther() {
+
+        // given
+        DeveloperAggregator aggregator = new DeveloperAggregator(1);
+
+        // when
+        aggregator.add(mockEntry(mockUser("peter", "Peter")));
+        aggregator.add(mockEntry(mockUser("ann", "Ann")));
+
+        // then
+        assertThat(aggregator.summarize(), equalTo("Ann and 1 other"));
+    }
+
+    @Test
+    void add_OnUsedTimeBudget_SkipsEntries() {
+
+        // given
+        DeveloperAggregator aggregator = new DeveloperAggregator(10, -1);
+        ChangeLogSet.Entry entry = mockEntry(mockUser("peter", "Peter"));
+        boolean added = true;
+
+        // when
+        for (int i = 0; i < 100 && added; i++) {
+            added = aggregator.add(entry);
+        }
+
+        // then
+        assertThat(added, is(false));
+        assertThat(aggregator.add(entry), is(false));
+        assertThat(aggregator.summarize(), equalTo("Peter and others"));
+    }
+
+    private static User mockUser(String id, String fullName) {
+        User user = AffectedFileBuilder.mockUser(fullName);
+        when(user.getId()).thenReturn(id);
+        when(user.getFullName()).thenReturn(fullName);
+        return user;
+    }
+
+    private static ChangeLogSet.Entry mockEntry(User author) {
+        ChangeLogSet.Entry entry = mock(ChangeLogSet.Entry.class);
+        when(entry.getAuthor()).thenReturn(author);
+        return entry;
+    }
+}
@@ -0,0 +1,82 @@
+package jenkins.plugins.office365connector;
+
+import hudson.FilePath;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import jenkins.plugins.office365connector.workflow.AbstractTest;
+import org.jenkinsci.plugins.tokenmacro.MacroEvaluationException;
+import org.jenkinsci.plugins.tokenmacro.TokenMacro;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+
+class MacroEvaluationContextTest {
+
+    private final Run run = mock(Run.class);
+    private final TaskListener taskListener = AbstractTest.mockListener();
+
+    @Test
+    void evaluate_OnSameTemplate_ExpandsOnce() {
+
+        // given
+        MacroEvaluationContext context = new MacroEvaluationContext(run, taskListener);
+
+        try (MockedStatic<TokenMacro> tokenMacroStatic = mockStatic(TokenMacro.class); MockedStatic<FilePath> filePathStatic = mockStatic(FilePath.class)) {
+            tokenMacroStatic.when(() -> TokenMacro.expandAll(any(), any(), any(), eq("${BUILD_STATUS}"))).thenReturn("SUCCESS");
+
+            // when
+            String first = context.evaluate("${BUILD_STATUS}");
+            String second = context.evaluate("${BUILD_STATUS}");
+
+            // then
+            assertThat(first, equalTo("SUCCESS"));
+            assertThat(second, equalTo("SUCCESS"));
+            tokenMacroStatic.verify(() -> TokenMacro.expandAll(any(), any(), any(), eq("${BUILD_STATUS}")), times(1));
+            assertThat(context.getHits(), equalTo(1));
+            assertThat(context.getMisses(), equalTo(1));
+        }
+    }
+
+    @Test
+    void evaluate_OnDifferentTemplates_ExpandsEach() {
+
+        // given
+        MacroEvaluationContext context = new MacroEvaluationContext(run, taskListener);
+
+        try (MockedStatic<TokenMacro> tokenMacroStatic = mockStatic(TokenMacro.class); MockedStatic<FilePath> filePathStatic = mockStatic(FilePath.class)) {
+            tokenMacroStatic.when(() -> TokenMacro.expandAll(any(), any(), any(), any())).thenReturn("value");
+
+            // when
+            context.evaluate("${BUILD_STATUS}");
+            context.evaluate("${CHANGES}");
+
+            // then
+            assertThat(context.getHits(), equalTo(0));
+            assertThat(context.getMisses(), equalTo(2));
+        }
+    }
+
+    @Test
+    void evaluate_OnInvalidMacro_ThrowsException() {
+
+        // given
+        MacroEvaluationContext context = new MacroEvaluationContext(run, taskListener);
+
+        try (MockedStatic<TokenMacro> tokenMacroStatic = mockStatic(TokenMacro.class); MockedStatic<FilePath> filePathStatic = mockStatic(FilePath.class)) {
+            tokenMacroStatic.when(() -> TokenMacro.expandAll(any(), any(), any(), any())).thenThrow(new MacroEvaluationException("ups!"));
+
+            // when & then
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> context.evaluate("anyTemplate"));
+            assertThat(ex.getCause(), instanceOf(MacroEvaluationException.class));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package jenkins.plugins.office365connector;
+
+import java.util.Date;
+
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import jenkins.plugins.office365connector.delivery.DeliveryRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationsActionTest {
+
+    @Test
+    void store_OnFirstNotification_AttachesActionAndSavesBuild() throws Exception {
+
+        // given
+        AbstractBuild run = mockRun();
+
+        // when
+        NotificationsAction.store(run, "webhook", "FAILURE", record(), "{\"summary\":\"Build Failed\"}");
+
+        // then
+        ArgumentCaptor<NotificationsAction> captor = ArgumentCaptor.forClass(NotificationsAction.class);
+        verify(run).addAction(captor.capture());
+        verify(run).save();
+
+        NotificationsAction.Notification notification = captor.getValue().getNotifications().get(0);
+        assertThat(notification.getWebhook(), equalTo("webhook"));
+        assertThat(notification.getEvent(), equalTo("FAILURE"));
+        assertThat(notification.getStatus(), is(DeliveryRecord.Status.DELIVERED));
+        assertThat(notification.getStatusCode(), equalTo(200));
+        assertThat(notification.getPayloadSize(), equalTo(512));
+        assertThat(notification.getAttempts(), contains(new Date(1500), new Date(1800)));
+        assertThat(notification.getCompleted(), equalTo(new Date(2000)));
+        assertThat(notification.getPayload(), nullValue());
+    }
+
+    @Test
+    void store_OnNextNotification_AddsToExistingAction() throws Exception {
+
+        // given
+        AbstractBuild run = mockRun();
+        NotificationsAction action = new NotificationsAction();
+        when(run.getAction(NotificationsAction.class)).thenReturn(action);
+
+        // when
+        NotificationsAction.store(run, "webhook", "STARTED", record(), null);
+        NotificationsAction.store(run, "webhook", "SUCCESS", record(), null);
+
+        // then
+        verify(run, never()).addAction(action);
+        verify(run, times(2)).save();
+        assertThat(action.getNotifications(), hasSize(2));
+        assertThat(action.getNotifications().get(1).getEvent(), equalTo("SUCCESS"));
+    }
+
+    @Test
+    void store_OnDeletedBuild_DoesNotSaveBuild() throws Exception {
+
+        // given
+        AbstractBuild run = mockRun();
+        when(run.getParent().getBuildByNumber(1)).thenReturn(null);
+
+        // when
+        NotificationsAction.store(run, "webhook", "FAILURE", record(), null);
+
+        // then
+        verify(run, never()).addAction(any());
+        verify(run, never()).save();
+    }
+
+    private static AbstractBuild mockRun() {
+        AbstractBuild run = mock(AbstractBuild.class);
+        AbstractProject project = mock(AbstractProject.class);
+        when(run.getParent()).thenReturn(project);
+        when(run.getNumber()).thenReturn(1);
+        when(project.getBuildByNumber(1)).thenReturn(run);
+        return run;
+    }
+
+    private static DeliveryRecord record() {
+        return new DeliveryRecord("job", 1, "https://outlook.office.com/webhook/1...", DeliveryRecord.Status.DELIVERED,
+                200, 512, 1000, 2000, new long[]{1500, 1800});
+    }
+}
@@ -0,0 +1,137 @@
+package jenkins.plugins.office365connector;
+
+import hudson.model.AbstractBuild;
+import hudson.model.Result;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResultStreakTest {
+
+    @Test
+    void add_OnFailures_StoresFailingSince() {
+
+        // given
+        ResultStreak streak = new ResultStreak();
+        streak.add(1, Result.SUCCESS);
+
+        // when
+        streak.add(2, Result.FAILURE);
+        streak.add(3, Result.FAILURE);
+
+        // then
+        assertThat(streak.getLastBuildNumber(), equalTo(3));
+        assertThat(streak.getLastResult(), is(Result.FAILURE));
+        assertThat(streak.getFailingSince(), equalTo(2));
+        assertThat(streak.getStreakLength(), equalTo(2));
+    }
+
+    @Test
+    void add_OnSuccess_ResetsFailingSince() {
+
+        // given
+        ResultStreak streak = new ResultStreak();
+        streak.add(1, Result.FAILURE);
+
+        // when
+        streak.add(2, Result.SUCCESS);
+
+        // then
+        assertThat(streak.getFailingSince(), equalTo(0));
+        assertThat(streak.getLastNotAbortedResult(), is(Result.SUCCESS));
+        assertThat(streak.getStreakLength(), equalTo(1));
+    }
+
+    @Test
+    void add_OnAborted_KeepsLastNotAbortedResult() {
+
+        // given
+        ResultStreak streak = new ResultStreak();
+        streak.add(1, Result.UNSTABLE);
+
+        // when
+        streak.add(2, Result.ABORTED);
+
+        // then
+        assertThat(streak.getLastResult(), is(Result.ABORTED));
+        assertThat(streak.getLastNotAbortedResult(), is(Result.UNSTABLE));
+        assertThat(streak.getStreakLength(), equalTo(1));
+    }
+
+    @Test
+    void fromHistory_OnFirstBuild_ReturnsEmptyStreak() {
+
+        // given
+        AbstractBuild run = mock(AbstractBuild.class);
+
+        // when
+        ResultStreak streak = ResultStreak.fromHistory(run);
+
+        // then
+        assertThat(streak.getLastBuildNumber(), equalTo(0));
+        assertThat(streak.getLastResult(), nullValue());
+        assertThat(streak.getFailingSince(), equalTo(0));
+    }
+
+    @Test
+    void fromHistory_OnRepeatedFailure_ReturnsFailingSince() {
+
+        // given
+        AbstractBuild run = mock(AbstractBuild.class);
+        AbstractBuild previousBuild = mock(AbstractBuild.class);
+        AbstractBuild failingSinceBuild = mock(AbstractBuild.class);
+        AbstractBuild lastNotFailedBuild = mock(AbstractBuild.class);
+        when(run.getPreviousCompletedBuild()).thenReturn(previousBuild);
+        when(previousBuild.getNumber()).thenReturn(12);
+        when(previousBuild.getResult()).thenReturn(Result.FAILURE);
+        when(previousBuild.getPreviousCompletedBuild()).thenReturn(failingSinceBuild);
+        when(failingSinceBuild.getResult()).thenReturn(Result.FAILURE);
+        when(failingSinceBuild.getNumber()).thenReturn(11);
+        when(failingSinceBuild.getPreviousCompletedBuild()).thenReturn(lastNotFailedBuild);
+        when(lastNotFailedBuild.getResult()).thenReturn(Result.SUCCESS);
+        when(lastNotFailedBuild.getNextBuild()).thenReturn(failingSinceBuild);
+        when(run.getPreviousNotFailedBuild()).thenReturn(lastNotFailedBuild);
+
+        // when
+        ResultStreak streak = ResultStreak.fromHistory(run);
+
+        // then
+        assertThat(streak.getLastBuildNumber(), equalTo(12));
+        assertThat(streak.getLastResult(), is(Result.FAILURE));
+        assertThat(streak.getFailingSince(), equalTo(11));
+        assertThat(streak.getStreakLength(), equalTo(2));
+    }
+
+    @Test
+    void forRun_OnMissingJob_ReturnsNull() {
+
+        // given
+        AbstractBuild run = mock(AbstractBuild.class);
+
+        // when
+        ResultStreak streak = ResultStreak.forRun(run);
+
+        // then
+        assertThat(streak, nullValue());
+    }
+
+    @Test
+    void endsWith_OnMissingBuild_ReturnsFalse() {
+
+        // given
+        ResultStreak streak = new ResultStreak();
+        streak.add(10, Result.SUCCESS);
+
+        // when
+        boolean complete = streak.endsWith(12);
+
+        // then
+        assertThat(complete, is(false));
+        assertThat(streak.endsWith(10), is(true));
+    }
+}
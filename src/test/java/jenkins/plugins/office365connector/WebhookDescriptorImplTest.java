@@ -2,6 +2,7 @@ package jenkins.plugins.office365connector;
 
 import hudson.util.FormValidation;
 import jenkins.model.Jenkins;
+import jenkins.plugins.office365connector.delivery.DeliveryEngine;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -139,4 +140,50 @@ class WebhookDescriptorImplTest {
         // then
         assertThat(result, equalTo(FormValidation.ok()));
     }
+
+    @Test
+    void getDeliveryThreads_OnMissingValue_ReturnsDefault() {
+
+        // given & when
+        int threads = descriptor.getDeliveryThreads();
+
+        // then
+        assertThat(threads, equalTo(DeliveryEngine.DEFAULT_THREADS));
+    }
+
+    @Test
+    void getDeliveryThreads_ReturnsThreads() {
+
+        // given
+        int threads = 7;
+
+        // when
+        descriptor.setDeliveryThreads(threads);
+
+        // then
+        assertThat(descriptor.getDeliveryThreads(), equalTo(threads));
+    }
+
+    @Test
+    void getDeliveryQueueSize_OnMissingValue_ReturnsDefault() {
+
+        // given & when
+        int queueSize = descriptor.getDeliveryQueueSize();
+
+        // then
+        assertThat(queueSize, equalTo(DeliveryEngine.DEFAULT_QUEUE_SIZE));
+    }
+
+    @Test
+    void doCheckDeliveryQueueSize_OnNegativeValue_ReturnsError() {
+
+        // given
+        int queueSize = -1;
+
+        // when
+        FormValidation result = descriptor.doCheckDeliveryQueueSize(queueSize);
+
+        // then
+        assertThat(result.kind, equalTo(FormValidation.Kind.ERROR));
+    }
 }
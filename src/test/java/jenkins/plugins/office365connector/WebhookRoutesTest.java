@@ -0,0 +1,66 @@
+package jenkins.plugins.office365connector;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+class WebhookRoutesTest {
+
+    @Test
+    void route_OnSingleEvent_ReturnsInterestedWebhooks() {
+
+        // given
+        Webhook started = new Webhook("startedUrl");
+        started.setStartNotification(true);
+        Webhook success = new Webhook("successUrl");
+        success.setNotifySuccess(true);
+        WebhookRoutes routes = new WebhookRoutes(Arrays.asList(started, success));
+
+        // when
+        List<Webhook> webhooks = routes.route(EnumSet.of(WebhookRoutes.Event.STARTED));
+
+        // then
+        assertThat(webhooks, contains(started));
+    }
+
+    @Test
+    void route_OnManyEvents_ReturnsWebhooksInConfiguredOrder() {
+
+        // given
+        Webhook backToNormal = new Webhook("backToNormalUrl");
+        backToNormal.setNotifyBackToNormal(true);
+        Webhook failure = new Webhook("failureUrl");
+        failure.setNotifyFailure(true);
+        Webhook success = new Webhook("successUrl");
+        success.setNotifySuccess(true);
+        success.setNotifyBackToNormal(true);
+        WebhookRoutes routes = new WebhookRoutes(Arrays.asList(backToNormal, failure, success));
+
+        // when
+        List<Webhook> webhooks = routes.route(EnumSet.of(WebhookRoutes.Event.SUCCESS, WebhookRoutes.Event.BACK_TO_NORMAL));
+
+        // then
+        assertThat(webhooks, contains(backToNormal, success));
+    }
+
+    @Test
+    void route_OnNoEvent_ReturnsNoWebhooks() {
+
+        // given
+        Webhook success = new Webhook("successUrl");
+        success.setNotifySuccess(true);
+        WebhookRoutes routes = new WebhookRoutes(Arrays.asList(success));
+
+        // when
+        List<Webhook> webhooks = routes.route(EnumSet.noneOf(WebhookRoutes.Event.class));
+
+        // then
+        assertThat(webhooks, empty());
+    }
+}
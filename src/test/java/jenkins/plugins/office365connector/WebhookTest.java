@@ -283,6 +283,75 @@ class WebhookTest {
         assertThat(actualTimeout, equalTo(Webhook.DEFAULT_TIMEOUT));
     }
 
+    @Test
+    void getMaxAttempts_ReturnsDefaultMaxAttempts() {
+
+        // given
+        Webhook webhook = new Webhook("someUrl");
+
+        // when
+        int maxAttempts = webhook.getMaxAttempts();
+
+        // then
+        assertThat(maxAttempts, equalTo(Webhook.DEFAULT_MAX_ATTEMPTS));
+    }
+
+    @Test
+    void getMaxElapsedTime_ReturnsMaxElapsedTime() {
+
+        // given
+        Webhook webhook = new Webhook("someUrl");
+        int maxElapsedTime = 42;
+        webhook.setMaxElapsedTime(maxElapsedTime);
+
+        // when
+        int actualMaxElapsedTime = webhook.getMaxElapsedTime();
+
+        // then
+        assertThat(actualMaxElapsedTime, equalTo(maxElapsedTime));
+    }
+
+    @Test
+    void isDigest_OnDefaultInterval_ReturnsFalse() {
+
+        // given
+        Webhook webhook = new Webhook("someUrl");
+
+        // when
+        boolean digest = webhook.isDigest();
+
+        // then
+        assertThat(digest, is(false));
+    }
+
+    @Test
+    void isDigest_OnInterval_ReturnsTrue() {
+
+        // given
+        Webhook webhook = new Webhook("someUrl");
+        webhook.setDigestInterval(60);
+
+        // when
+        boolean digest = webhook.isDigest();
+
+        // then
+        assertThat(digest, is(true));
+        assertThat(webhook.getDigestInterval(), equalTo(60));
+    }
+
+    @Test
+    void getDigestSize_OnDefault_ReturnsDefaultSize() {
+
+        // given
+        Webhook webhook = new Webhook("someUrl");
+
+        // when
+        int digestSize = webhook.getDigestSize();
+
+        // then
+        assertThat(digestSize, equalTo(Webhook.DEFAULT_DIGEST_SIZE));
+    }
+
     @Test
     void getMacros_ReturnsMacros() {
 
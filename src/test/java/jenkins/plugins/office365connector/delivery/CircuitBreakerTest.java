@@ -0,0 +1,162 @@
+package jenkins.plugins.office365connector.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+class CircuitBreakerTest {
+
+    private static final String URL = "https://outlook.office.com/webhook/123456789";
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    @Test
+    void acquire_OnUnknownEndpoint_AllowsRequest() {
+
+        // given
+        // nothing has been sent
+
+        // when
+        long wait = circuitBreaker.acquire(URL, 1000);
+
+        // then
+        assertThat(wait, is(0L));
+    }
+
+    @Test
+    void acquire_AfterConsecutiveFailures_RejectsRequest() {
+
+        // given
+        failRepeatedly(CircuitBreaker.CONSECUTIVE_FAILURES_THRESHOLD, 1000);
+
+        // when
+        long wait = circuitBreaker.acquire(URL, 1000);
+
+        // then
+        assertThat(wait, is(CircuitBreaker.BASE_BREAK_MILLIS));
+    }
+
+    @Test
+    void acquire_OnHighFailureRate_RejectsRequest() {
+
+        // given
+        for (int i = 0; i < CircuitBreaker.MIN_CALLS; i++) {
+            circuitBreaker.record(URL, i % 2 == 0, 1000);
+        }
+
+        // when
+        long wait = circuitBreaker.acquire(URL, 1000);
+
+        // then
+        assertThat(wait, is(CircuitBreaker.BASE_BREAK_MILLIS));
+    }
+
+    @Test
+    void acquire_AfterBreak_AllowsSingleProbe() {
+
+        // given
+        failRepeatedly(CircuitBreaker.CONSECUTIVE_FAILURES_THRESHOLD, 1000);
+        long afterBreak = 1000 + CircuitBreaker.BASE_BREAK_MILLIS;
+
+        // when
+        long probe = circuitBreaker.acquire(URL, afterBreak);
+        long other = circuitBreaker.acquire(URL, afterBreak);
+
+        // then
+        assertThat(probe, is(0L));
+        assertThat(other, is(CircuitBreaker.PROBE_WAIT_MILLIS));
+        assertThat(circuitBreaker.getStatuses().get(0).getState(), is(CircuitBreaker.State.HALF_OPEN));
+    }
+
+    @Test
+    void acquire_AfterAbandonedProbe_AllowsAnotherProbe() {
+
+        // given
+        failRepeatedly(CircuitBreaker.CONSECUTIVE_FAILURES_THRESHOLD, 1000);
+        long afterBreak = 1000 + CircuitBreaker.BASE_BREAK_MILLIS;
+        circuitBreaker.acquire(URL, afterBreak);
+
+        // when
+        long probe = circuitBreaker.acquire(URL, afterBreak + CircuitBreaker.PROBE_LEASE_MILLIS);
+
+        // then
+        assertThat(probe, is(0L));
+        assertThat(circuitBreaker.acquire(URL, afterBreak + CircuitBreaker.PROBE_LEASE_MILLIS),
+                is(CircuitBreaker.PROBE_WAIT_MILLIS));
+    }
+
+    @Test
+    void record_OnSuccessfulProbe_ClosesCircuit() {
+
+        // given
+        failRepeatedly(CircuitBreaker.CONSECUTIVE_FAILURES_THRESHOLD, 1000);
+        long afterBreak = 1000 + CircuitBreaker.BASE_BREAK_MILLIS;
+        circuitBreaker.acquire(URL, afterBreak);
+
+        // when
+        circuitBreaker.record(URL, true, afterBreak);
+
+        // then
+        assertThat(circuitBreaker.acquire(URL, afterBreak), is(0L));
+        assertThat(circuitBreaker.getStatuses().get(0).getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    void record_OnFailedProbe_DoublesBreak() {
+
+        // given
+        failRepeatedly(CircuitBreaker.CONSECUTIVE_FAILURES_THRESHOLD, 1000);
+        long afterBreak = 1000 + CircuitBreaker.BASE_BREAK_MILLIS;
+        circuitBreaker.acquire(URL, afterBreak);
+
+        // when
+        circuitBreaker.record(URL, false, afterBreak);
+
+        // then
+        assertThat(circuitBreaker.acquire(URL, afterBreak), is(CircuitBreaker.BASE_BREAK_MILLIS * 2));
+    }
+
+    @Test
+    void isEndpointFailure_OnPayloadError_ReturnsFalse() {
+
+        // given
+        DeliveryResult badRequest = DeliveryResult.response(400, "Bad payload");
+        DeliveryResult gone = DeliveryResult.response(410, "Gone");
+        DeliveryResult failure = DeliveryResult.failure(new IOException("Connection refused"));
+
+        // when & then
+        assertThat(CircuitBreaker.isEndpointFailure(badRequest), is(false));
+        assertThat(CircuitBreaker.isEndpointFailure(gone), is(true));
+        assertThat(CircuitBreaker.isEndpointFailure(failure), is(true));
+    }
+
+    @Test
+    void getStatuses_ReturnsMaskedEndpoints() {
+
+        // given
+        failRepeatedly(2, 1000);
+
+        // when
+        List<CircuitBreaker.Status> statuses = circuitBreaker.getStatuses();
+
+        // then
+        assertThat(statuses, hasSize(1));
+        CircuitBreaker.Status status = statuses.get(0);
+        assertThat(status.getEndpoint(), equalTo("outlook.office.com/...456789 #201b39"));
+        assertThat(status.getState(), is(CircuitBreaker.State.CLOSED));
+        assertThat(status.getConsecutiveFailures(), is(2));
+        assertThat(status.getFailureRate(), is(100));
+    }
+
+    private void failRepeatedly(int times, long now) {
+        for (int i = 0; i < times; i++) {
+            circuitBreaker.record(URL, false, now);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package jenkins.plugins.office365connector.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+class DeliveryMetricsTest {
+
+    private static final String URL = "https://outlook.office.com/webhook/123456789";
+
+    @Test
+    void recordResult_CountsOutcomesByStatusClass() {
+
+        // given
+        DeliveryMetrics metrics = new DeliveryMetrics();
+        metrics.recordRequestStarted();
+        metrics.recordRequestStarted();
+        metrics.recordRequestStarted();
+        metrics.recordRequestStarted();
+
+        // when
+        metrics.recordResult(URL, DeliveryResult.response(200, null), 0);
+        metrics.recordResult(URL, DeliveryResult.response(429, "Too many requests"), 0);
+        metrics.recordResult(URL, DeliveryResult.response(503, "Unavailable"), 0);
+
+        // then
+        List<DeliveryMetrics.Endpoint> endpoints = metrics.getEndpoints();
+        assertThat(endpoints, hasSize(1));
+        DeliveryMetrics.Endpoint endpoint = endpoints.get(0);
+        assertThat(endpoint.getEndpoint(), equalTo(Endpoints.mask(URL)));
+        assertThat(endpoint.getSuccessful(), equalTo(1L));
+        assertThat(endpoint.getClientErrors(), equalTo(1L));
+        assertThat(endpoint.getServerErrors(), equalTo(1L));
+        assertThat(metrics.getInFlight(), equalTo(1));
+    }
+
+    @Test
+    void recordResult_OnFailure_CountsRequestWithoutResponse() {
+
+        // given
+        DeliveryMetrics metrics = new DeliveryMetrics();
+        metrics.recordRequestStarted();
+
+        // when
+        metrics.recordResult(URL, DeliveryResult.failure(new IOException("timeout")), 0);
+
+        // then
+        assertThat(metrics.getEndpoints().get(0).getFailures(), equalTo(1L));
+        assertThat(metrics.getInFlight(), equalTo(0));
+    }
+
+    @Test
+    void recordResult_OnManyEndpoints_LimitsEndpoints() {
+
+        // given
+        DeliveryMetrics metrics = new DeliveryMetrics();
+
+        // when
+        for (int i = 0; i <= DeliveryMetrics.MAX_ENDPOINTS; i++) {
+            metrics.recordRetry(URL + i);
+        }
+
+        // then
+        assertThat(metrics.getEndpoints(), hasSize(DeliveryMetrics.MAX_ENDPOINTS + 1));
+        metrics.recordRetry(URL + "another");
+        assertThat(metrics.getEndpoints(), hasSize(DeliveryMetrics.MAX_ENDPOINTS + 1));
+    }
+
+    @Test
+    void getPercentileMillis_ReturnsBoundOfBucket() {
+
+        // given
+        DeliveryMetrics.Histogram histogram = new DeliveryMetrics.Histogram();
+
+        // when
+        for (int i = 0; i < 90; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(20));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(700));
+        }
+
+        // then
+        assertThat(histogram.getCount(), equalTo(100L));
+        assertThat(histogram.getP50Millis(), equalTo(25L));
+        assertThat(histogram.getP95Millis(), equalTo(1000L));
+        assertThat(histogram.getAverageMillis(), equalTo(88L));
+    }
+}
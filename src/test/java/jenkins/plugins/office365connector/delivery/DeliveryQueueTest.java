@@ -0,0 +1,131 @@
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.EnumSet;
+
+import jenkins.plugins.office365connector.WebhookRoutes;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class DeliveryQueueTest {
+
+    @Test
+    void poll_ReturnsTaskOfHighestPriorityFirst() {
+
+        // given
+        DeliveryQueue queue = new DeliveryQueue(10);
+        Task low = new Task(Priority.LOW);
+        Task normal = new Task(Priority.NORMAL);
+        Task high = new Task(Priority.HIGH);
+
+        // when
+        queue.offer(low);
+        queue.offer(normal);
+        queue.offer(high);
+
+        // then
+        assertThat(queue.poll(), sameInstance(high));
+        assertThat(queue.poll(), sameInstance(normal));
+        assertThat(queue.poll(), sameInstance(low));
+        assertThat(queue.poll(), nullValue());
+    }
+
+    @Test
+    void offer_OnExceededShareOfPriority_RejectsTask() {
+
+        // given
+        DeliveryQueue queue = new DeliveryQueue(4);
+        queue.offer(new Task(Priority.LOW));
+        queue.offer(new Task(Priority.LOW));
+
+        // when
+        boolean offered = queue.offer(new Task(Priority.LOW));
+
+        // then
+        assertThat(offered, is(false));
+        assertThat(queue.offer(new Task(Priority.HIGH)), is(true));
+        assertThat(queue.size(Priority.LOW), equalTo(2));
+    }
+
+    @Test
+    void offer_OnFullQueue_DropsNewestTaskOfLowerPriority() {
+
+        // given
+        DeliveryQueue queue = new DeliveryQueue(4);
+        Task oldest = new Task(Priority.LOW);
+        Task newest = new Task(Priority.LOW);
+        queue.offer(oldest);
+        queue.offer(newest);
+        queue.offer(new Task(Priority.NORMAL));
+        queue.offer(new Task(Priority.NORMAL));
+
+        // when
+        boolean offered = queue.offer(new Task(Priority.HIGH));
+
+        // then
+        assertThat(offered, is(true));
+        assertThat(newest.dropped, is(true));
+        assertThat(oldest.dropped, is(false));
+        assertThat(queue.size(), equalTo(4));
+        assertThat(queue.offer(new Task(Priority.LOW)), is(false));
+    }
+
+    @Test
+    void poll_OnWaitingTaskOfLowerPriority_TakesItAfterStarvationLimit() {
+
+        // given
+        DeliveryQueue queue = new DeliveryQueue(100);
+        Task low = new Task(Priority.LOW);
+        queue.offer(low);
+        for (int i = 0; i <= DeliveryQueue.STARVATION_LIMIT; i++) {
+            queue.offer(new Task(Priority.HIGH));
+        }
+
+        // when
+        for (int i = 0; i < DeliveryQueue.STARVATION_LIMIT; i++) {
+            assertThat(queue.poll().getPriority(), is(Priority.HIGH));
+        }
+
+        // then
+        assertThat(queue.poll(), sameInstance(low));
+        assertThat(queue.poll().getPriority(), is(Priority.HIGH));
+    }
+
+    @Test
+    void of_ReturnsPriorityOfEvents() {
+
+        // given & when & then
+        assertThat(Priority.of(EnumSet.of(WebhookRoutes.Event.REPEATED_FAILURE)), is(Priority.HIGH));
+        assertThat(Priority.of(EnumSet.of(WebhookRoutes.Event.SUCCESS, WebhookRoutes.Event.BACK_TO_NORMAL)), is(Priority.HIGH));
+        assertThat(Priority.of(EnumSet.of(WebhookRoutes.Event.UNSTABLE)), is(Priority.NORMAL));
+        assertThat(Priority.of(EnumSet.of(WebhookRoutes.Event.SUCCESS)), is(Priority.LOW));
+    }
+
+    private static class Task implements Priority.Task {
+
+        private final Priority priority;
+        private boolean dropped;
+
+        Task(Priority priority) {
+            this.priority = priority;
+        }
+
+        @Override
+        public Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void onDropped() {
+            dropped = true;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package jenkins.plugins.office365connector.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class DeliveryResultTest {
+
+    @Test
+    void isSuccess_OnOkResponse_ReturnsTrue() {
+
+        // given
+        DeliveryResult result = DeliveryResult.response(200, null);
+
+        // when
+        boolean success = result.isSuccess();
+
+        // then
+        assertThat(success, is(true));
+    }
+
+    @Test
+    void isSuccess_OnBadRequest_ReturnsFalse() {
+
+        // given
+        DeliveryResult result = DeliveryResult.response(400, "Bad payload");
+
+        // when
+        boolean success = result.isSuccess();
+
+        // then
+        assertThat(success, is(false));
+    }
+
+    @Test
+    void isSuccess_OnFailure_ReturnsFalse() {
+
+        // given
+        DeliveryResult result = DeliveryResult.failure(new IOException("connection refused"));
+
+        // when
+        boolean success = result.isSuccess();
+
+        // then
+        assertThat(success, is(false));
+    }
+}
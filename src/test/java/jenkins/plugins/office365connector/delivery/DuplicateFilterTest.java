@@ -0,0 +1,121 @@
+package jenkins.plugins.office365connector.delivery;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+class DuplicateFilterTest {
+
+    private static final String TARGET = "folder/job https://outlook.office.com/webhook/123456789";
+    private static final long WINDOW = 60_000;
+
+    @TempDir
+    File directory;
+
+    @Test
+    void isDuplicate_OnSameContentWithinWindow_ReturnsTrue() {
+
+        // given
+        DuplicateFilter filter = new DuplicateFilter(null, 10);
+        filter.markSent(TARGET, "hash", 1000);
+
+        // when
+        boolean duplicate = filter.isDuplicate(TARGET, "hash", WINDOW, 1000 + WINDOW - 1);
+
+        // then
+        assertThat(duplicate, is(true));
+    }
+
+    @Test
+    void isDuplicate_OnDifferentContent_ReturnsFalse() {
+
+        // given
+        DuplicateFilter filter = new DuplicateFilter(null, 10);
+        filter.markSent(TARGET, "hash", 1000);
+
+        // when
+        boolean duplicate = filter.isDuplicate(TARGET, "otherHash", WINDOW, 2000);
+
+        // then
+        assertThat(duplicate, is(false));
+    }
+
+    @Test
+    void isDuplicate_AfterWindow_ReturnsFalse() {
+
+        // given
+        DuplicateFilter filter = new DuplicateFilter(null, 10);
+        filter.markSent(TARGET, "hash", 1000);
+
+        // when
+        boolean duplicate = filter.isDuplicate(TARGET, "hash", WINDOW, 1000 + WINDOW);
+
+        // then
+        assertThat(duplicate, is(false));
+    }
+
+    @Test
+    void isDuplicate_OnExceededCapacity_ForgetsLeastRecentlyUsedTarget() {
+
+        // given
+        DuplicateFilter filter = new DuplicateFilter(null, 2);
+        filter.markSent("first", "hash", 1000);
+        filter.markSent("second", "hash", 1000);
+        filter.markSent("first", "hash", 1000);
+        filter.markSent("third", "hash", 1000);
+
+        // when & then
+        assertThat(filter.isDuplicate("first", "hash", WINDOW, 2000), is(true));
+        assertThat(filter.isDuplicate("second", "hash", WINDOW, 2000), is(false));
+    }
+
+    @Test
+    void save_StoresHashesForNextStart() {
+
+        // given
+        File file = new File(directory, "sent-hashes.txt");
+        DuplicateFilter filter = new DuplicateFilter(file, 10);
+        filter.markSent(TARGET, "hash", 1000);
+
+        // when
+        filter.save();
+
+        // then
+        DuplicateFilter restored = new DuplicateFilter(file, 10);
+        assertThat(restored.isDuplicate(TARGET, "hash", WINDOW, 2000), is(true));
+    }
+
+    @Test
+    void isDuplicate_OnContentNotMarkedAsSent_ReturnsFalse() {
+
+        // given
+        DuplicateFilter filter = new DuplicateFilter(null, 10);
+        filter.isDuplicate(TARGET, "hash", WINDOW, 1000);
+
+        // when
+        boolean duplicate = filter.isDuplicate(TARGET, "hash", WINDOW, 2000);
+
+        // then
+        assertThat(duplicate, is(false));
+    }
+
+    @Test
+    void hash_OnDifferentContent_ReturnsDifferentHash() {
+
+        // given
+        String content = "{\"summary\":\"Build Failed\"}";
+
+        // when
+        String hash = DuplicateFilter.hash(content);
+
+        // then
+        assertThat(hash, equalTo(DuplicateFilter.hash(content)));
+        assertThat(hash, not(equalTo(DuplicateFilter.hash("{\"summary\":\"Build Success\"}"))));
+    }
+}
@@ -0,0 +1,64 @@
+package jenkins.plugins.office365connector.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+class EndpointsTest {
+
+    @Test
+    void mask_HidesPath() {
+
+        // given
+        String url = "https://outlook.office.com/webhook/123456789";
+
+        // when
+        String masked = Endpoints.mask(url);
+
+        // then
+        assertThat(masked, equalTo("outlook.office.com/...456789 #201b39"));
+    }
+
+    @Test
+    void mask_OnMaskedEndpoint_ReturnsItUnchanged() {
+
+        // given
+        String masked = Endpoints.mask("https://outlook.office.com/webhook/987654321");
+
+        // when
+        String maskedAgain = Endpoints.mask(masked);
+
+        // then
+        assertThat(maskedAgain, equalTo(masked));
+    }
+
+    @Test
+    void mask_OnSameSuffix_DistinguishesEndpoints() {
+
+        // given
+        String first = "https://prod.westeurope.logic.azure.com/workflows/111/triggers/manual/paths/invoke";
+        String second = "https://prod.westeurope.logic.azure.com/workflows/222/triggers/manual/paths/invoke";
+
+        // when
+        String firstMasked = Endpoints.mask(first);
+        String secondMasked = Endpoints.mask(second);
+
+        // then
+        assertThat(firstMasked, not(equalTo(secondMasked)));
+    }
+
+    @Test
+    void mask_OnNormalizedEndpoint_ReturnsSameValue() {
+
+        // given
+        String url = "https://OUTLOOK.office.com/webhook/123456789/?foo=bar";
+
+        // when
+        String masked = Endpoints.mask(Endpoints.normalize(url));
+
+        // then
+        assertThat(masked, equalTo(Endpoints.mask(url)));
+    }
+}
@@ -0,0 +1,88 @@
+package jenkins.plugins.office365connector.delivery;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+class HttpClientRegistryTest {
+
+    private static final String URL = "https://webhook.office.com/webhookb2/abc";
+
+    @AfterEach
+    void tearDown() {
+        HttpClientRegistry.get().invalidate();
+    }
+
+    @Test
+    void getClient_OnSameSettings_ReturnsSameClient() {
+
+        // given
+        HttpClientRegistry registry = HttpClientRegistry.get();
+        CloseableHttpClient client = registry.getClient(URL, 1000);
+
+        // when
+        CloseableHttpClient reused = registry.getClient(URL + "/other", 1000);
+
+        // then
+        assertThat(reused, sameInstance(client));
+    }
+
+    @Test
+    void getClient_OnDifferentTimeout_ReturnsNewClient() {
+
+        // given
+        HttpClientRegistry registry = HttpClientRegistry.get();
+        CloseableHttpClient client = registry.getClient(URL, 1000);
+
+        // when
+        CloseableHttpClient other = registry.getClient(URL, 2000);
+
+        // then
+        assertThat(other, not(sameInstance(client)));
+    }
+
+    @Test
+    void invalidate_DropsClients() {
+
+        // given
+        HttpClientRegistry registry = HttpClientRegistry.get();
+        CloseableHttpClient client = registry.getClient(URL, 1000);
+
+        // when
+        registry.invalidate();
+
+        // then
+        assertThat(registry.getClient(URL, 1000), not(sameInstance(client)));
+    }
+
+    @Test
+    void isNoProxyHost_OnMatchedPattern_ReturnsTrue() {
+
+        // given
+        List<Pattern> patterns = List.of(Pattern.compile(".*webhook\\.office\\.com.*"));
+
+        // when
+        boolean noProxy = HttpClientRegistry.isNoProxyHost(URL, patterns);
+
+        // then
+        assertThat(noProxy, is(true));
+    }
+
+    @Test
+    void isNoProxyHost_OnMissingPatterns_ReturnsFalse() {
+
+        // given & when
+        boolean noProxy = HttpClientRegistry.isNoProxyHost(URL, null);
+
+        // then
+        assertThat(noProxy, is(false));
+    }
+}
@@ -0,0 +1,124 @@
+package jenkins.plugins.office365connector.delivery;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class NotificationPipelineTest {
+
+    private final NotificationPipeline pipeline = new NotificationPipeline();
+
+    @Test
+    void submit_PassesResultThroughStages() throws InterruptedException {
+
+        // given
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // when
+        pipeline.submit(() -> "snapshot",
+                snapshot -> snapshot + ">evaluate",
+                evaluated -> evaluated + ">render",
+                rendered -> rendered + ">serialize",
+                serialized -> {
+                    delivered.add(serialized);
+                    latch.countDown();
+                });
+
+        // then
+        assertThat(latch.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(delivered, contains("snapshot>evaluate>render>serialize"));
+        // waits until statistics of all stages are updated
+        pipeline.getStages().forEach(NotificationPipeline.Stage::shutdown);
+        for (NotificationPipeline.Stage stage : pipeline.getStages()) {
+            assertThat(stage.getName(), stage.getProcessed(), equalTo(1L));
+        }
+    }
+
+    @Test
+    void submit_OnNullResult_StopsProcessing() throws InterruptedException {
+
+        // given
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // when
+        pipeline.submit(() -> "snapshot",
+                snapshot -> {
+                    latch.countDown();
+                    return null;
+                },
+                evaluated -> evaluated,
+                rendered -> rendered,
+                serialized -> {
+                    throw new AssertionError("Should not be delivered");
+                });
+
+        // then
+        assertThat(latch.await(10, TimeUnit.SECONDS), is(true));
+        NotificationPipeline.Stage render = pipeline.getStages().get(2);
+        assertThat(render.getProcessed(), equalTo(0L));
+    }
+
+    @Test
+    void submit_OnFailure_CountsFailedNotification() {
+
+        // given
+        NotificationPipeline.Stage snapshot = pipeline.getStages().get(0);
+
+        // when
+        pipeline.submit(() -> {
+                    throw new IllegalStateException("Build has been deleted");
+                },
+                snapshotted -> snapshotted,
+                evaluated -> evaluated,
+                rendered -> rendered,
+                serialized -> {
+                });
+
+        // then
+        assertThat(snapshot.getFailed(), equalTo(1L));
+        assertThat(snapshot.getProcessed(), equalTo(1L));
+    }
+
+    @Test
+    void execute_OnStoppedStageThatRejects_DoesNotRunTask() {
+
+        // given
+        NotificationPipeline.Stage stage = new NotificationPipeline.Stage("Evaluate", 1, false);
+        stage.shutdown();
+        List<String> processed = new CopyOnWriteArrayList<>();
+
+        // when
+        boolean accepted = stage.execute(() -> processed.add("task"));
+
+        // then
+        assertThat(accepted, is(false));
+        assertThat(processed, empty());
+        assertThat(stage.getRejected(), equalTo(1L));
+    }
+
+    @Test
+    void execute_OnStoppedStageRunByCaller_RunsTask() {
+
+        // given
+        NotificationPipeline.Stage stage = new NotificationPipeline.Stage("Render", 1, true);
+        stage.shutdown();
+        List<String> processed = new CopyOnWriteArrayList<>();
+
+        // when
+        boolean accepted = stage.execute(() -> processed.add("task"));
+
+        // then
+        assertThat(accepted, is(true));
+        assertThat(processed, contains("task"));
+    }
+}
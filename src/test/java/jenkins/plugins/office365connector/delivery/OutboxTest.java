@@ -0,0 +1,122 @@
+package jenkins.plugins.office365connector.delivery;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OutboxTest {
+
+    private static final String URL = "https://outlook.office.com/webhook/123456789";
+
+    @TempDir
+    File directory;
+
+    @Test
+    void recover_ReturnsNotAcknowledgedEntries() throws IOException {
+
+        // given
+        Outbox outbox = new Outbox(directory, Outbox.DEFAULT_SEGMENT_SIZE);
+        long delivered = outbox.append(entry("delivered"));
+        outbox.append(entry("pending"));
+        outbox.acknowledge(delivered);
+        outbox.close();
+
+        // when
+        List<OutboxEntry> entries = new Outbox(directory, Outbox.DEFAULT_SEGMENT_SIZE).recover();
+
+        // then
+        assertThat(entries, hasSize(1));
+        OutboxEntry entry = entries.get(0);
+        assertThat(entry.getData(), equalTo("pending"));
+        assertThat(entry.getUrl(), equalTo(URL));
+        assertThat(entry.getTimeout(), equalTo(30000));
+        assertThat(entry.getMaxAttempts(), equalTo(3));
+        assertThat(entry.getMaxElapsedMillis(), equalTo(60_000L));
+        assertThat(entry.getCreatedAt(), equalTo(1234L));
+        assertThat(entry.getPriority(), equalTo(Priority.HIGH));
+    }
+
+    @Test
+    void recover_OnIncompleteRecord_IgnoresIt() throws IOException {
+
+        // given
+        Outbox outbox = new Outbox(directory, Outbox.DEFAULT_SEGMENT_SIZE);
+        outbox.append(entry("pending"));
+        outbox.close();
+        File[] segments = directory.listFiles();
+        assertThat(segments, not(arrayWithSize(0)));
+        Files.write(segments[0].toPath(), new byte[]{0, 0, 0, 100, 1, 2}, StandardOpenOption.APPEND);
+
+        // when
+        List<OutboxEntry> entries = new Outbox(directory, Outbox.DEFAULT_SEGMENT_SIZE).recover();
+
+        // then
+        assertThat(entries, hasSize(1));
+        assertThat(entries.get(0).getData(), equalTo("pending"));
+    }
+
+    @Test
+    void recover_ReturnsEntriesOnlyOnce() throws IOException {
+
+        // given
+        Outbox outbox = new Outbox(directory, Outbox.DEFAULT_SEGMENT_SIZE);
+        outbox.append(entry("pending"));
+        outbox.close();
+        Outbox reopened = new Outbox(directory, Outbox.DEFAULT_SEGMENT_SIZE);
+        reopened.recover();
+
+        // when
+        List<OutboxEntry> entries = reopened.recover();
+
+        // then
+        assertThat(entries, empty());
+    }
+
+    @Test
+    void append_OnAcknowledgedSegments_DeletesThem() throws IOException {
+
+        // given
+        Outbox outbox = new Outbox(directory, 1);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            outbox.acknowledge(outbox.append(entry("delivered")));
+        }
+        outbox.close();
+
+        // then
+        assertThat(directory.listFiles(), arrayWithSize(1));
+        assertThat(new Outbox(directory, 1).recover(), empty());
+    }
+
+    @Test
+    void append_AfterClose_ThrowsException() {
+
+        // given
+        Outbox outbox = new Outbox(directory, Outbox.DEFAULT_SEGMENT_SIZE);
+        outbox.close();
+
+        // when
+        IOException e = assertThrows(IOException.class, () -> outbox.append(entry("lost")));
+
+        // then
+        assertThat(e.getMessage(), equalTo("Outbox has been closed"));
+    }
+
+    private static OutboxEntry entry(String data) {
+        return new OutboxEntry(0, URL, data, 30000, 3, 60_000, 1234, Priority.HIGH);
+    }
+}
@@ -0,0 +1,143 @@
+package jenkins.plugins.office365connector.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+class RateLimiterTest {
+
+    private static final String URL = "https://outlook.office.com/webhook/123456789";
+
+    private final RateLimiter rateLimiter = new RateLimiter();
+
+    @Test
+    void reserve_WithinBurst_DoesNotWait() {
+
+        // given
+        long now = 1000;
+
+        for (int i = 0; i < 3; i++) {
+            // when
+            long wait = rateLimiter.reserve(URL, 1, 3, now);
+
+            // then
+            assertThat(wait, is(0L));
+        }
+    }
+
+    @Test
+    void reserve_AboveBurst_ReturnsIncreasingWait() {
+
+        // given
+        long now = 1000;
+        rateLimiter.reserve(URL, 2, 1, now);
+
+        // when
+        long firstWait = rateLimiter.reserve(URL, 2, 1, now);
+        long secondWait = rateLimiter.reserve(URL, 2, 1, now);
+
+        // then
+        assertThat(firstWait, is(500L));
+        assertThat(secondWait, is(1000L));
+    }
+
+    @Test
+    void reserve_AfterRefill_DoesNotWait() {
+
+        // given
+        rateLimiter.reserve(URL, 1, 1, 1000);
+
+        // when
+        long wait = rateLimiter.reserve(URL, 1, 1, 2000);
+
+        // then
+        assertThat(wait, is(0L));
+    }
+
+    @Test
+    void reserve_OnDifferentEndpoints_UsesSeparateBuckets() {
+
+        // given
+        rateLimiter.reserve(URL, 1, 1, 1000);
+
+        // when
+        long wait = rateLimiter.reserve("https://outlook.office.com/webhook/987654321", 1, 1, 1000);
+
+        // then
+        assertThat(wait, is(0L));
+    }
+
+    @Test
+    void reserve_OnSameEndpoint_IgnoresCaseAndQuery() {
+
+        // given
+        rateLimiter.reserve(URL, 1, 1, 1000);
+
+        // when
+        long wait = rateLimiter.reserve("https://OUTLOOK.office.com/webhook/123456789/?foo=bar", 1, 1, 1000);
+
+        // then
+        assertThat(wait, is(1000L));
+    }
+
+    @Test
+    void reserve_OnZeroRate_DoesNotLimit() {
+
+        // given
+        rateLimiter.reserve(URL, 0, 1, 1000);
+
+        // when
+        long wait = rateLimiter.reserve(URL, 0, 1, 1000);
+
+        // then
+        assertThat(wait, is(0L));
+        assertThat(rateLimiter.getWaitTimes(), aMapWithSize(0));
+    }
+
+    @Test
+    void evictIdle_RemovesUnusedBuckets() {
+
+        // given
+        rateLimiter.reserve(URL, 1, 1, 1000);
+
+        // when
+        rateLimiter.evictIdle(1000 + TimeUnit.HOURS.toMillis(1));
+
+        // then
+        assertThat(rateLimiter.getWaitTimes(), aMapWithSize(0));
+    }
+
+    @Test
+    void getWaitTimes_ReturnsMaskedEndpoints() {
+
+        // given
+        rateLimiter.reserve(URL, 1, 1, System.currentTimeMillis());
+
+        // when
+        Map<String, Long> waitTimes = rateLimiter.getWaitTimes();
+
+        // then
+        assertThat(waitTimes, aMapWithSize(1));
+        assertThat(waitTimes.keySet().iterator().next(), equalTo("outlook.office.com/...456789 #201b39"));
+    }
+
+    @Test
+    void getWaitTimes_OnEmptyBucket_ReturnsWait() {
+
+        // given
+        rateLimiter.reserve(URL, 0.001, 1, System.currentTimeMillis());
+
+        // when
+        Map<String, Long> waitTimes = rateLimiter.getWaitTimes();
+
+        // then
+        assertThat(waitTimes.get("outlook.office.com/...456789 #201b39"), greaterThan(0L));
+    }
+}
@@ -0,0 +1,89 @@
+package jenkins.plugins.office365connector.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+class RecentDeliveriesTest {
+
+    private static final String URL = "https://outlook.office.com/webhook/123456789";
+    private static final String OTHER_URL = "https://outlook.office.com/webhook/987654321";
+
+    @Test
+    void getRecords_ReturnsNewestFirst() {
+
+        // given
+        RecentDeliveries deliveries = new RecentDeliveries(10);
+        DeliveryRecord first = record("job", 1, URL);
+        DeliveryRecord second = record("job", 2, URL);
+
+        // when
+        deliveries.add(first);
+        deliveries.add(second);
+
+        // then
+        assertThat(deliveries.getRecords(null, null), contains(second, first));
+    }
+
+    @Test
+    void getRecords_OnExceededCapacity_ForgetsOldestRecords() {
+
+        // given
+        RecentDeliveries deliveries = new RecentDeliveries(2);
+        DeliveryRecord first = record("job", 1, URL);
+        DeliveryRecord second = record("job", 2, URL);
+        DeliveryRecord third = record("job", 3, URL);
+
+        // when
+        deliveries.add(first);
+        deliveries.add(second);
+        deliveries.add(third);
+
+        // then
+        assertThat(deliveries.getRecords(null, null), contains(third, second));
+    }
+
+    @Test
+    void getRecords_OnJob_ReturnsRecordsOfJob() {
+
+        // given
+        RecentDeliveries deliveries = new RecentDeliveries(10);
+        DeliveryRecord job = record("folder/job", 1, URL);
+        deliveries.add(job);
+        deliveries.add(record("other", 1, URL));
+
+        // when
+        List<DeliveryRecord> records = deliveries.getRecords("folder/job", "");
+
+        // then
+        assertThat(records, contains(job));
+    }
+
+    @Test
+    void getRecords_OnEndpoint_ReturnsRecordsOfEndpoint() {
+
+        // given
+        RecentDeliveries deliveries = new RecentDeliveries(10);
+        DeliveryRecord other = record("job", 1, OTHER_URL);
+        deliveries.add(record("job", 1, URL));
+        deliveries.add(other);
+
+        // when
+        List<DeliveryRecord> byUrl = deliveries.getRecords(null, OTHER_URL);
+        List<DeliveryRecord> byMaskedEndpoint = deliveries.getRecords(null, Endpoints.mask(OTHER_URL));
+
+        // then
+        assertThat(byUrl, contains(other));
+        assertThat(byMaskedEndpoint, contains(other));
+        assertThat(deliveries.getRecords("unknown", OTHER_URL), empty());
+    }
+
+    private static DeliveryRecord record(String job, int build, String url) {
+        return new DeliveryRecord(job, build, Endpoints.mask(url), DeliveryRecord.Status.DELIVERED, 200, 512,
+                1000, 2000, new long[]{1500});
+    }
+}
@@ -0,0 +1,170 @@
+package jenkins.plugins.office365connector.delivery;
+
+import org.apache.hc.client5.http.utils.DateUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+class RetryPolicyTest {
+
+    private final RetryPolicy retryPolicy = new RetryPolicy(3, 60_000);
+
+    @Test
+    void isRetryable_OnThrottling_ReturnsTrue() {
+
+        // given
+        int[] codes = {429, 502, 503, 504};
+
+        for (int code : codes) {
+            // when
+            boolean retryable = retryPolicy.isRetryable(DeliveryResult.response(code, null));
+
+            // then
+            assertThat(retryable, is(true));
+        }
+    }
+
+    @Test
+    void isRetryable_OnPermanentError_ReturnsFalse() {
+
+        // given
+        int[] codes = {400, 404, 413};
+
+        for (int code : codes) {
+            // when
+            boolean retryable = retryPolicy.isRetryable(DeliveryResult.response(code, null));
+
+            // then
+            assertThat(retryable, is(false));
+        }
+    }
+
+    @Test
+    void isRetryable_OnMalformedUrl_ReturnsFalse() {
+
+        // given
+        DeliveryResult result = DeliveryResult.failure(new IllegalArgumentException("Illegal character in path"));
+
+        // when
+        boolean retryable = retryPolicy.isRetryable(result);
+
+        // then
+        assertThat(retryable, is(false));
+    }
+
+    @Test
+    void isRetryable_OnConnectionError_ReturnsTrue() {
+
+        // given
+        DeliveryResult result = DeliveryResult.failure(new IOException("Connection reset"));
+
+        // when
+        boolean retryable = retryPolicy.isRetryable(result);
+
+        // then
+        assertThat(retryable, is(true));
+    }
+
+    @Test
+    void nextDelay_GrowsExponentially() {
+
+        // given
+        DeliveryResult result = DeliveryResult.response(503, null);
+
+        // when
+        long first = retryPolicy.nextDelay(1, result);
+        long third = retryPolicy.nextDelay(3, result);
+
+        // then
+        assertThat(first, allOf(greaterThanOrEqualTo(500L), lessThanOrEqualTo(1000L)));
+        assertThat(third, allOf(greaterThanOrEqualTo(2000L), lessThanOrEqualTo(4000L)));
+    }
+
+    @Test
+    void nextDelay_IsLimited() {
+
+        // given
+        DeliveryResult result = DeliveryResult.response(503, null);
+
+        // when
+        long delay = retryPolicy.nextDelay(100, result);
+
+        // then
+        assertThat(delay, lessThanOrEqualTo(RetryPolicy.MAX_DELAY_MILLIS));
+    }
+
+    @Test
+    void nextDelay_OnRetryAfter_ReturnsRequestedDelay() {
+
+        // given
+        DeliveryResult result = DeliveryResult.response(429, null, 7000);
+
+        // when
+        long delay = retryPolicy.nextDelay(1, result);
+
+        // then
+        assertThat(delay, equalTo(7000L));
+    }
+
+    @Test
+    void canRetry_OnLastAttempt_ReturnsFalse() {
+
+        // given & when
+        boolean canRetry = retryPolicy.canRetry(3, 0, 0);
+
+        // then
+        assertThat(canRetry, is(false));
+    }
+
+    @Test
+    void canRetry_OnExceededTime_ReturnsFalse() {
+
+        // given & when
+        boolean canRetry = retryPolicy.canRetry(1, 59_000, 2000);
+
+        // then
+        assertThat(canRetry, is(false));
+    }
+
+    @Test
+    void parseRetryAfter_OnSeconds_ReturnsMillis() {
+
+        // given & when
+        long delay = RetryPolicy.parseRetryAfter("120");
+
+        // then
+        assertThat(delay, equalTo(120_000L));
+    }
+
+    @Test
+    void parseRetryAfter_OnFutureDate_ReturnsPositiveDelay() {
+
+        // given
+        String date = DateUtils.formatStandardDate(Instant.now().plusSeconds(60));
+
+        // when
+        long delay = RetryPolicy.parseRetryAfter(date);
+
+        // then
+        assertThat(delay, greaterThan(0L));
+    }
+
+    @Test
+    void parseRetryAfter_OnInvalidValue_ReturnsZero() {
+
+        // given & when
+        long delay = RetryPolicy.parseRetryAfter("soon");
+
+        // then
+        assertThat(delay, equalTo(0L));
+    }
+}
@@ -0,0 +1,72 @@
+package jenkins.plugins.office365connector.jfr;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import hudson.model.Job;
+import hudson.model.Run;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotificationEventTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void commit_RecordsJobAndFieldsOfEvent() throws Exception {
+
+        // given
+        Path file = directory.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(DeliveryAttemptEvent.class);
+            recording.start();
+
+            // when
+            DeliveryAttemptEvent event = new DeliveryAttemptEvent("folder/job", "https://outlook.office.com/...", 2, 512);
+            event.begin();
+            event.setStatusCode(200);
+            event.setSuccessful(true);
+            event.commit();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events, hasSize(1));
+        RecordedEvent recorded = events.get(0);
+        assertThat(recorded.getString("job"), equalTo("folder/job"));
+        assertThat(recorded.getInt("attempt"), equalTo(2));
+        assertThat(recorded.getLong("bytes"), equalTo(512L));
+        assertThat(recorded.getInt("statusCode"), equalTo(200));
+    }
+
+    @Test
+    void jobName_ReturnsFullNameOfJob() {
+
+        // given
+        Run run = mock(Run.class);
+        Job job = mock(Job.class);
+        when(run.getParent()).thenReturn(job);
+        when(job.getFullName()).thenReturn("folder/job");
+
+        // when
+        String name = NotificationEvent.jobName(run);
+
+        // then
+        assertThat(name, equalTo("folder/job"));
+        assertThat(NotificationEvent.jobName(mock(Run.class)), nullValue());
+    }
+}
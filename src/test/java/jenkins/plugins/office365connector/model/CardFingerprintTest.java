@@ -0,0 +1,50 @@
+package jenkins.plugins.office365connector.model;
+
+import java.util.List;
+
+import hudson.model.Result;
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCard;
+import jenkins.plugins.office365connector.model.messagecard.MessageCard;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+class CardFingerprintTest {
+
+    @Test
+    void of_OnCardsOfDifferentBuilds_ReturnsSameFields() {
+
+        // given
+        Card first = new MessageCard("job: Build #12 Failed", section("#12", "Build Failed"));
+        Card second = new MessageCard("job: Build #123 Failed", section("#123", "Build Failed"));
+
+        // when
+        List<String> fields = CardFingerprint.of(first);
+
+        // then
+        assertThat(fields, equalTo(CardFingerprint.of(second)));
+    }
+
+    @Test
+    void of_OnDifferentFacts_ReturnsDifferentFields() {
+
+        // given
+        Card failed = new AdaptiveCard("job: Build #12", section("#12", "Build Failed"), Result.FAILURE);
+        Card fixed = new AdaptiveCard("job: Build #12", section("#12", "Back to Normal"), Result.FAILURE);
+
+        // when
+        List<String> fields = CardFingerprint.of(failed);
+
+        // then
+        assertThat(fields, not(equalTo(CardFingerprint.of(fixed))));
+        assertThat(CardFingerprint.of(new AdaptiveCard("job: Build #123", section("#123", "Build Failed"), Result.FAILURE)),
+                equalTo(fields));
+    }
+
+    private static Section section(String runName, String status) {
+        return new Section("Notification from job: " + status, "Latest status of build " + runName,
+                List.of(new Fact("Status", status)));
+    }
+}
@@ -0,0 +1,119 @@
+package jenkins.plugins.office365connector.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import hudson.model.Result;
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCard;
+import jenkins.plugins.office365connector.model.adaptivecard.FactSet;
+import jenkins.plugins.office365connector.model.messagecard.MessageCard;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+class CardSizeLimiterTest {
+
+    private static final int MAX_SIZE = 4 * 1024;
+
+    @Test
+    void fit_OnSmallCard_KeepsFacts() {
+
+        // given
+        List<Fact> facts = List.of(new Fact("Status", "Build Failed"), new Fact("Remarks", "Started by user"));
+        Card card = new MessageCard("summary", new Section("title", "subtitle", facts));
+
+        // when
+        CardSizeLimiter.fit(card, MAX_SIZE, Set.of());
+
+        // then
+        assertThat(card.getSections().get(0).getFacts(), sameInstance(facts));
+    }
+
+    @Test
+    void fit_OnLongValue_TruncatesValue() {
+
+        // given
+        List<Fact> facts = List.of(new Fact("Status", "Build Failed"),
+                new Fact("Committers", StringUtils.repeat('a', CardSizeLimiter.MAX_VALUE_LENGTH * 5)));
+        Card card = new MessageCard("summary", new Section("title", "subtitle", facts));
+
+        // when
+        CardSizeLimiter.fit(card, MAX_SIZE, Set.of());
+
+        // then
+        List<Fact> fitted = card.getSections().get(0).getFacts();
+        assertThat(fitted, hasSize(2));
+        assertThat(fitted.get(1).getValue(),
+                equalTo(StringUtils.repeat('a', CardSizeLimiter.MAX_VALUE_LENGTH) + CardSizeLimiter.TRUNCATION_MARK));
+        assertThat(CardWriter.size(card), lessThanOrEqualTo((long) MAX_SIZE));
+    }
+
+    @Test
+    void fit_OnManyFacts_CollapsesOverflow() {
+
+        // given
+        List<Fact> facts = sampleFacts(30, 200);
+        Card card = new MessageCard("summary", new Section("title", "subtitle", facts));
+
+        // when
+        CardSizeLimiter.fit(card, MAX_SIZE, Set.of("Status"));
+
+        // then
+        List<Fact> fitted = card.getSections().get(0).getFacts();
+        assertThat(fitted, hasSize(CardSizeLimiter.MAX_VISIBLE_FACTS));
+        assertThat(fitted.get(0).getName(), equalTo("Status"));
+        Fact more = fitted.get(fitted.size() - 1);
+        assertThat(more.getName(), equalTo(CardSizeLimiter.NAME_MORE_FACTS));
+        assertThat(more.getValue(), equalTo("21 more facts are not shown"));
+        assertThat(CardWriter.size(card), lessThanOrEqualTo((long) MAX_SIZE));
+    }
+
+    @Test
+    void fit_OnAdaptiveCard_DropsLastFactsButRequired() {
+
+        // given
+        List<Fact> facts = sampleFacts(5, CardSizeLimiter.MAX_VALUE_LENGTH);
+        Card card = new AdaptiveCard("summary", new Section("title", "subtitle", facts), Result.FAILURE);
+
+        // when
+        CardSizeLimiter.fit(card, 2 * 1024, Set.of("Status"));
+
+        // then
+        FactSet factSet = (FactSet) ((AdaptiveCard) card).getBody().get(2);
+        assertThat(factSet.getFacts(), hasSize(2));
+        assertThat(factSet.getFacts().get(0).getTitle(), equalTo("Status"));
+        assertThat(CardWriter.size(card), lessThanOrEqualTo(2L * 1024));
+    }
+
+    @Test
+    void fit_OnManyLongFacts_KeepsCollapsedFact() {
+
+        // given
+        List<Fact> facts = sampleFacts(30, CardSizeLimiter.MAX_VALUE_LENGTH);
+        Card card = new MessageCard("summary", new Section("title", "subtitle", facts));
+
+        // when
+        CardSizeLimiter.fit(card, 2 * 1024, Set.of("Status"));
+
+        // then
+        List<Fact> fitted = card.getSections().get(0).getFacts();
+        assertThat(fitted.get(0).getName(), equalTo("Status"));
+        assertThat(fitted.get(fitted.size() - 1).getName(), equalTo(CardSizeLimiter.NAME_MORE_FACTS));
+        assertThat(CardWriter.size(card), lessThanOrEqualTo(2L * 1024));
+    }
+
+    private static List<Fact> sampleFacts(int count, int valueLength) {
+        List<Fact> facts = new ArrayList<>();
+        facts.add(new Fact("Status", "Build Failed"));
+        for (int i = 1; i < count; i++) {
+            facts.add(new Fact("fact" + i, StringUtils.repeat('x', valueLength)));
+        }
+        return facts;
+    }
+}
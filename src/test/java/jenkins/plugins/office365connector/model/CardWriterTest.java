@@ -0,0 +1,81 @@
+package jenkins.plugins.office365connector.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.Gson;
+import hudson.model.Result;
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCard;
+import jenkins.plugins.office365connector.model.adaptivecard.AdaptiveCardAction;
+import jenkins.plugins.office365connector.model.messagecard.MessageCard;
+import jenkins.plugins.office365connector.model.messagecard.PotentialAction;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class CardWriterTest {
+
+    private static final Gson GSON = new Gson();
+
+    @Test
+    void toJson_OnMessageCard_WritesSameAsGson() {
+
+        // given
+        List<Fact> facts = Arrays.asList(new Fact("Status", "Build <Failed>"), new Fact("Remarks", null));
+        Section section = new Section("Notification from 'job' & co", null, facts);
+        Card card = new MessageCard("job: Build #1 = Failed", section);
+        card.setThemeColor("#FF0000");
+        card.setAction(List.of(new PotentialAction("View Build", "http://localhost:8080/job/1/")));
+
+        // when
+        String json = CardWriter.toJson(card);
+
+        // then
+        assertThat(json, equalTo(GSON.toJson(card.toPaylod())));
+    }
+
+    @Test
+    void toJson_OnAdaptiveCard_WritesSameAsGson() {
+
+        // given
+        List<Fact> facts = Arrays.asList(new Fact("Status", "Build Failed"), new Fact("Developers", "<Mike>"));
+        Section section = new Section("Notification from job", "Latest status of build #1", facts);
+        Card card = new AdaptiveCard("job: Build #1 Failed", section, Result.FAILURE);
+        card.setAction(List.of(new AdaptiveCardAction("View Build", "http://localhost:8080/job/1/")));
+
+        // when
+        String json = CardWriter.toJson(card);
+
+        // then
+        assertThat(json, equalTo(GSON.toJson(card.toPaylod())));
+    }
+
+    @Test
+    void toJson_OnAdaptiveCardWithoutActions_WritesSameAsGson() {
+
+        // given
+        Card card = new AdaptiveCard("job: Build #1 Success", null, Result.SUCCESS);
+
+        // when
+        String json = CardWriter.toJson(card);
+
+        // then
+        assertThat(json, equalTo(GSON.toJson(card.toPaylod())));
+    }
+
+    @Test
+    void size_OnMultiByteCharacters_ReturnsEncodedLength() {
+
+        // given
+        Section section = new Section("Zażółć gęślą jaźń", "\uD83D\uDE00", List.of(new Fact("Status", "<ok>")));
+        Card card = new MessageCard("job: Build #1", section);
+
+        // when
+        long size = CardWriter.size(card);
+
+        // then
+        assertThat(size, equalTo((long) CardWriter.toJson(card).getBytes(StandardCharsets.UTF_8).length));
+    }
+}
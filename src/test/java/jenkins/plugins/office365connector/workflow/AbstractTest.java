@@ -1,5 +1,7 @@
 package jenkins.plugins.office365connector.workflow;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
 import hudson.EnvVars;
 import hudson.FilePath;
 import hudson.model.AbstractBuild;
@@ -15,7 +17,6 @@ import jenkins.plugins.office365connector.Webhook;
 import jenkins.plugins.office365connector.WebhookJobProperty;
 import jenkins.plugins.office365connector.helpers.ClassicDisplayURLProviderBuilder;
 import jenkins.plugins.office365connector.helpers.WebhookBuilder;
-import org.apache.commons.lang3.StringUtils;
 import org.jenkinsci.plugins.displayurlapi.DisplayURLProvider;
 import org.jenkinsci.plugins.tokenmacro.TokenMacro;
 import org.junit.jupiter.api.AfterEach;
@@ -158,8 +159,9 @@ public abstract class AbstractTest {
         workerConstruction = mockConstruction(HttpWorker.class, (mock, context) -> workerData.add(context.arguments().get(1).toString()));
     }
 
-    // compares files without worrying about EOL
+    // compares payload with the pretty printed file, the payload itself is compact
     protected void assertHasSameContent(String value, String expected) {
-        assertThat(StringUtils.normalizeSpace(value), equalTo(StringUtils.normalizeSpace(expected)));
+        String compactExpected = new Gson().toJson(JsonParser.parseString(expected));
+        assertThat(value, equalTo(compactExpected));
     }
 }
@@ -156,6 +156,38 @@ class Office365ConnectorWebhookNotifierTest extends AbstractTest {
         }
     }
 
+    @Test
+    void sendBuildCompletedNotification_OnSameCards_BuildsCardOnce() {
+        // given
+        Office365ConnectorWebhookNotifier notifier = new Office365ConnectorWebhookNotifier(run, taskListener);
+        setWebhookToJob(WebhookBuilder.sampleMultiplyWebhookWithAllStatuses());
+
+        try (MockedConstruction<CardBuilder> cardBuilderConstruction = mockConstruction(CardBuilder.class)) {
+            // when
+            notifier.sendBuildCompletedNotification();
+
+            // then
+            assertEquals(1, cardBuilderConstruction.constructed().size());
+        }
+    }
+
+    @Test
+    void sendBuildCompletedNotification_OnDifferentCards_BuildsCardForEach() {
+        // given
+        Office365ConnectorWebhookNotifier notifier = new Office365ConnectorWebhookNotifier(run, taskListener);
+        List<Webhook> webhooks = WebhookBuilder.sampleMultiplyWebhookWithAllStatuses();
+        webhooks.get(1).setAdaptiveCards(true);
+        setWebhookToJob(webhooks);
+
+        try (MockedConstruction<CardBuilder> cardBuilderConstruction = mockConstruction(CardBuilder.class)) {
+            // when
+            notifier.sendBuildCompletedNotification();
+
+            // then
+            assertEquals(2, cardBuilderConstruction.constructed().size());
+        }
+    }
+
     private void injectFakeDecisionMaker(Office365ConnectorWebhookNotifier notifier) {
         DecisionMaker decisionMaker = mock(DecisionMaker.class);
         when(decisionMaker.isAtLeastOneRuleMatched(any())).thenThrow(new IllegalStateException());
@@ -145,6 +145,25 @@ class SampleIT extends AbstractTest {
         assertEquals(1, workerConstruction.constructed().size());
     }
 
+    @Test
+    void sendBuildCompletedNotification_OnFullDigest_SendsDigest() {
+
+        // given
+        when(run.getResult()).thenReturn(Result.SUCCESS);
+        Webhook webhook = WebhookBuilder.sampleWebhookWithAllStatuses().get(0);
+        webhook.setDigestInterval(3600);
+        webhook.setDigestSize(1);
+        mockProperty(run.getParent(), List.of(webhook));
+        Office365ConnectorWebhookNotifier notifier = new Office365ConnectorWebhookNotifier(run, mockListener());
+
+        // when
+        notifier.sendBuildCompletedNotification();
+
+        // then
+        assertHasSameContent(workerData.get(0), FileUtils.getContentFile("digest.json"));
+        assertEquals(1, workerConstruction.constructed().size());
+    }
+
     @Test
     void sendBuildStepNotification_SendsProperData() {
 